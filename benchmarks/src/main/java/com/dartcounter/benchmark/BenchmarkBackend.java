@@ -0,0 +1,239 @@
+package com.dartcounter.benchmark;
+
+import com.dartcounter.DartCounterApplication;
+import com.dartcounter.dto.CreateSessionRequest;
+import com.dartcounter.entity.GameEvent;
+import com.dartcounter.entity.GameSession;
+import com.dartcounter.entity.GameStatus;
+import com.dartcounter.entity.Player;
+import com.dartcounter.repository.GameEventRepository;
+import com.dartcounter.repository.GameEventStore;
+import com.dartcounter.repository.GameSessionRepository;
+import com.dartcounter.repository.PlayerRepository;
+import com.dartcounter.repository.SessionCodeCounterRepository;
+import com.dartcounter.service.GameMetrics;
+import com.dartcounter.service.GameSessionService;
+import com.dartcounter.service.GameStateCache;
+import com.dartcounter.service.LiveSession;
+import com.dartcounter.service.LiveSessionRegistry;
+import com.dartcounter.service.SessionCodeAllocator;
+import com.dartcounter.service.StateDeltaTracker;
+import com.dartcounter.service.WriteBehindFlusher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The service graph under test, either wired by hand against Mockito repositories
+ * ("mock") or taken from a running application on an in-memory H2 database ("h2").
+ */
+final class BenchmarkBackend implements AutoCloseable {
+
+    final GameSessionService service;
+    final LiveSessionRegistry registry;
+    final WriteBehindFlusher flusher;
+
+    private final ConfigurableApplicationContext context;
+    private final GameSessionRepository mockedSessions;
+    private final AtomicLong nextId = new AtomicLong();
+    private int sessionCount;
+
+    private BenchmarkBackend(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.mockedSessions = null;
+        this.service = context.getBean(GameSessionService.class);
+        this.registry = context.getBean(LiveSessionRegistry.class);
+        this.flusher = context.getBean(WriteBehindFlusher.class);
+    }
+
+    private BenchmarkBackend() {
+        this.context = null;
+        this.mockedSessions = mock(GameSessionRepository.class);
+        PlayerRepository players = mock(PlayerRepository.class);
+        GameEventStore events = mock(GameEventStore.class);
+        SessionCodeCounterRepository counters = mock(SessionCodeCounterRepository.class);
+        TransactionTemplate transactions = new TransactionTemplate(new NoOpTransactionManager());
+
+        this.registry = new LiveSessionRegistry(mockedSessions, events);
+        this.flusher = new WriteBehindFlusher(registry, mockedSessions, players, events, transactions);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        this.service = new GameSessionService(mockedSessions, events, registry, flusher,
+            new StateDeltaTracker(), new GameStateCache(new ObjectMapper(), meters, 10_000, 30),
+            new SessionCodeAllocator(counters, transactions, "benchmark"), new GameMetrics(meters),
+            event -> { });
+    }
+
+    static BenchmarkBackend create(String kind) {
+        return switch (kind) {
+            case "mock" -> new BenchmarkBackend();
+            case "h2" -> h2();
+            default -> throw new IllegalArgumentException("Unknown backend: " + kind);
+        };
+    }
+
+    static BenchmarkBackend h2(String... properties) {
+        return new BenchmarkBackend(new SpringApplicationBuilder(DartCounterApplication.class)
+            .profiles("local")
+            .properties("server.port=0", "spring.h2.console.enabled=false")
+            .properties(properties)
+            .run());
+    }
+
+    /**
+     * Hibernate statistics of the "h2" backend; only collected when started
+     * with hibernate.generate_statistics.
+     */
+    Statistics statistics() {
+        if (context == null) {
+            throw new IllegalStateException("Statistics are only available for the h2 backend");
+        }
+        return context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Creates a started game and returns its code.
+     */
+    String createActiveSession(int playerCount, int startingScore) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            names.add("Player " + (i + 1));
+        }
+
+        if (context != null) {
+            CreateSessionRequest request = new CreateSessionRequest();
+            request.setPlayerNames(names);
+            request.setStartingScore(startingScore);
+            String code = service.createSession(request).getSessionCode();
+            service.startGame(code);
+            return code;
+        }
+
+        GameSession session = new GameSession();
+        session.setSessionCode(String.format("BENCH%d", sessionCount++));
+        session.setStartingScore(startingScore);
+        session.setStatus(GameStatus.ACTIVE);
+        session.setVersion(0L);
+        for (int i = 0; i < playerCount; i++) {
+            Player player = new Player(names.get(i), startingScore, i);
+            player.setId(nextId.incrementAndGet());
+            session.addPlayer(player);
+        }
+        when(mockedSessions.findBySessionCode(session.getSessionCode())).thenReturn(Optional.of(session));
+        return session.getSessionCode();
+    }
+
+    /**
+     * Puts every player of a session on the given score at the start of a visit.
+     * This bypasses the event log, so the new state is written as a snapshot.
+     */
+    void setScores(String code, int score) {
+        LiveSession live = registry.acquire(code);
+        live.getLock().lock();
+        try {
+            for (Player player : live.getSession().getPlayers()) {
+                player.setScore(score);
+                player.setCurrentThrow(0);
+            }
+            live.getSession().setCurrentPlayerIndex(0);
+            live.getSession().setDartsThrown(0);
+            live.markDirty();
+            flusher.flush(live, true);
+        } finally {
+            live.getLock().unlock();
+        }
+    }
+
+    /**
+     * Writes pending changes now, as the scheduled flusher would.
+     */
+    void flush(String code) {
+        LiveSession live = registry.acquire(code);
+        live.getLock().lock();
+        try {
+            if (live.isDirty()) {
+                flusher.flush(live);
+            }
+        } finally {
+            live.getLock().unlock();
+        }
+    }
+
+    /**
+     * Writes pending changes and drops the session from memory, as idle eviction
+     * would, but without forcing a snapshot.
+     */
+    void evict(String code) {
+        LiveSession live = registry.acquire(code);
+        live.getLock().lock();
+        try {
+            if (live.isDirty()) {
+                flusher.flush(live);
+            }
+            registry.evict(live);
+        } finally {
+            live.getLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a session the way every command did while throw history was an eager
+     * collection: the session, its players and every throw it ever recorded, all
+     * managed by one read-write transaction. The event log stands in for the
+     * history. Returns the number of players and throws read.
+     */
+    int loadWithFullHistory(String code) {
+        if (context == null) {
+            throw new IllegalStateException("Full history reads are only available for the h2 backend");
+        }
+        GameSessionRepository sessions = context.getBean(GameSessionRepository.class);
+        GameEventRepository events = context.getBean(GameEventRepository.class);
+        return context.getBean(TransactionTemplate.class).execute(status -> {
+            GameSession session = sessions.findBySessionCode(code).orElseThrow();
+            List<GameEvent> history = events.findBySessionCodeAndSeqGreaterThanOrderBySeq(code, 0);
+            return session.getPlayers().size() + history.size();
+        });
+    }
+
+    @Override
+    public void close() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
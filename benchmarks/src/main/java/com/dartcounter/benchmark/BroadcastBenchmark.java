@@ -0,0 +1,138 @@
+package com.dartcounter.benchmark;
+
+import com.dartcounter.config.BrokerProperties;
+import com.dartcounter.dto.GameStateDTO;
+import com.dartcounter.entity.GameSession;
+import com.dartcounter.entity.GameStatus;
+import com.dartcounter.entity.Player;
+import com.dartcounter.service.GameBroadcaster;
+import com.dartcounter.service.GameMetrics;
+import com.dartcounter.service.StateDeltaTracker;
+import com.dartcounter.service.TopicSubscriptionTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * One broadcast to a session topic with many subscribers, through the simple
+ * broker and STOMP encoding per subscriber, all on the calling thread.
+ *
+ * Compares the template's conversion of the DTO ({@code convertAndSend}) with
+ * the pre-encoded JSON and binary messages sent by {@link GameBroadcaster}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BroadcastBenchmark {
+
+    private static final String DESTINATION = "/topic/session/BENCH1";
+
+    @Param({"1", "50", "500"})
+    public int subscribers;
+
+    private final StompEncoder encoder = new StompEncoder();
+    private SimpleBrokerMessageHandler broker;
+    private SimpMessagingTemplate template;
+    private GameBroadcaster broadcaster;
+    private GameStateDTO state;
+    private long encodedBytes;
+
+    @Setup
+    public void setUp() {
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+
+        // What the STOMP protocol handler does for each subscriber's WebSocket session
+        clientOutbound.subscribe(message -> {
+            StompHeaderAccessor stomp = StompHeaderAccessor.create(StompCommand.MESSAGE);
+            stomp.copyHeadersIfAbsent(message.getHeaders());
+            encodedBytes += encoder.encode(stomp.getMessageHeaders(), (byte[]) message.getPayload()).length;
+        });
+
+        broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel, List.of("/topic"));
+        broker.start();
+        for (int i = 0; i < subscribers; i++) {
+            SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            subscribe.setSessionId("session-" + i);
+            subscribe.setSubscriptionId("sub-0");
+            subscribe.setDestination(DESTINATION);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+        }
+
+        // Same converters as the WebSocket configuration
+        template = new SimpMessagingTemplate(brokerChannel);
+        template.setMessageConverter(new CompositeMessageConverter(List.of(
+            new StringMessageConverter(), new ByteArrayMessageConverter(), new MappingJackson2MessageConverter())));
+
+        broadcaster = new GameBroadcaster(template, new StateDeltaTracker(), mock(TopicSubscriptionTracker.class),
+            new GameMetrics(new SimpleMeterRegistry()), new ObjectMapper(), new BrokerProperties());
+
+        GameSession session = new GameSession();
+        session.setSessionCode("BENCH1");
+        session.setStartingScore(501);
+        session.setStatus(GameStatus.ACTIVE);
+        session.setVersion(42L);
+        for (int i = 0; i < 4; i++) {
+            Player player = new Player("Player " + (i + 1), 501 - i * 20, i);
+            player.setId((long) i);
+            session.addPlayer(player);
+        }
+        state = GameStateDTO.from(session);
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.stop();
+    }
+
+    @Benchmark
+    public long convertAndSend() {
+        template.convertAndSend(DESTINATION, state);
+        return encodedBytes;
+    }
+
+    @Benchmark
+    public long preEncoded() {
+        template.send(DESTINATION, broadcaster.encode(state));
+        return encodedBytes;
+    }
+
+    @Benchmark
+    public long preEncodedBinary() {
+        template.send(DESTINATION, broadcaster.encodeBinary(state));
+        return encodedBytes;
+    }
+}
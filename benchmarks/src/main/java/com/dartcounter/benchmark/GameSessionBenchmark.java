@@ -0,0 +1,103 @@
+package com.dartcounter.benchmark;
+
+import com.dartcounter.dto.GameStateDTO;
+import com.dartcounter.dto.ThrowRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring commands on a resident session. Each benchmark leaves the game in the
+ * state it started from, so it can be repeated indefinitely.
+ *
+ * Pending events are flushed every {@link #FLUSH_EVERY} commands, like the
+ * write-behind flusher would; with the "h2" backend that includes the real inserts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameSessionBenchmark {
+
+    private static final int FLUSH_EVERY = 1024;
+
+    @Param({"mock", "h2"})
+    public String backend;
+
+    private BenchmarkBackend env;
+    private String scoringCode;
+    private String bustCode;
+    private String winCode;
+    private ThrowRequest twenty;
+    private ThrowRequest doubleTwenty;
+    private int commands;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = BenchmarkBackend.create(backend);
+
+        // Scores high enough that no iteration ever finishes the game
+        scoringCode = env.createActiveSession(2, Integer.MAX_VALUE);
+        // Both players on 10: every 20 busts and passes the turn on
+        bustCode = env.createActiveSession(2, 301);
+        env.setScores(bustCode, 10);
+        // Player one on 40: double 20 wins
+        winCode = env.createActiveSession(2, 301);
+        env.setScores(winCode, 40);
+
+        twenty = new ThrowRequest();
+        twenty.setSegment(20);
+        doubleTwenty = new ThrowRequest();
+        doubleTwenty.setSegment(20);
+        doubleTwenty.setMultiplier(2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    public GameStateDTO processThrow() {
+        flushPeriodically(scoringCode);
+        return env.service.processThrow(scoringCode, twenty);
+    }
+
+    @Benchmark
+    public GameStateDTO bust() {
+        flushPeriodically(bustCode);
+        return env.service.processThrow(bustCode, twenty);
+    }
+
+    @Benchmark
+    public GameStateDTO winThenUndo() {
+        env.service.processThrow(winCode, doubleTwenty);
+        return env.service.undoLastThrow(winCode);
+    }
+
+    @Benchmark
+    public GameStateDTO throwThenUndo() {
+        env.service.processThrow(scoringCode, twenty);
+        return env.service.undoLastThrow(scoringCode);
+    }
+
+    private void flushPeriodically(String code) {
+        if (++commands % FLUSH_EVERY == 0) {
+            env.flush(code);
+        }
+    }
+}
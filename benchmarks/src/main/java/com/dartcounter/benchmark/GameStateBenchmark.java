@@ -0,0 +1,71 @@
+package com.dartcounter.benchmark;
+
+import com.dartcounter.dto.GameStateDTO;
+import com.dartcounter.entity.GameSession;
+import com.dartcounter.entity.GameStatus;
+import com.dartcounter.entity.Player;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a session to {@link GameStateDTO} and encoding it as JSON, the work
+ * done once per broadcast.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameStateBenchmark {
+
+    @Param({"2", "8"})
+    public int players;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private GameSession session;
+    private GameStateDTO state;
+
+    @Setup
+    public void setUp() {
+        session = new GameSession();
+        session.setSessionCode("BENCH1");
+        session.setStartingScore(501);
+        session.setStatus(GameStatus.ACTIVE);
+        session.setVersion(42L);
+        for (int i = 0; i < players; i++) {
+            Player player = new Player("Player " + (i + 1), 501 - i * 20, i);
+            player.setId((long) i);
+            session.addPlayer(player);
+        }
+        state = GameStateDTO.from(session);
+    }
+
+    @Benchmark
+    public GameStateDTO mapToDto() {
+        return GameStateDTO.from(session);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(state);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(GameStateDTO.from(session));
+    }
+}
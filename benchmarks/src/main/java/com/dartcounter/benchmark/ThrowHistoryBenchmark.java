@@ -0,0 +1,138 @@
+package com.dartcounter.benchmark;
+
+import com.dartcounter.dto.GameStateDTO;
+import com.dartcounter.dto.ThrowRequest;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of game commands and reads as a session's throw history grows, against
+ * H2. Besides the latency, every iteration prints the rows Hibernate fetched
+ * (entities loaded) and the statements it prepared per operation, from its
+ * statistics. Neither should grow with {@link #history}, except for the
+ * baseline below.
+ *
+ * A resident session answers throws and undos from memory. A session that is
+ * not resident is read from its last snapshot plus the events logged after
+ * it, so a read replays fewer than snapshot-interval events however long the
+ * game has been going.
+ *
+ * {@link #eagerHistoryBaseline} is the comparison point: the read every command
+ * made while throw history was an eagerly fetched collection of the session,
+ * with the event log standing in for that history. The lazy history with a
+ * resident undo window that first replaced it was itself superseded by the
+ * event log, so the current commands and reads are what is measured against it.
+ *
+ * Run with: java -jar benchmarks/target/benchmarks.jar ThrowHistoryBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThrowHistoryBenchmark {
+
+    // Resident sessions flush about this often while being played
+    private static final int FLUSH_EVERY = 16;
+
+    @Param({"0", "1000", "10000"})
+    public int history;
+
+    private BenchmarkBackend env;
+    private Statistics statistics;
+    private String residentCode;
+    private String storedCode;
+    private ThrowRequest miss;
+    private long operations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = BenchmarkBackend.h2(
+            "spring.jpa.properties.hibernate.generate_statistics=true",
+            "dartcounter.write-behind.flush-interval-ms=3600000",
+            "dartcounter.session.sweep-interval-ms=3600000");
+        statistics = env.statistics();
+        miss = new ThrowRequest();
+        miss.setSegment(0);
+
+        // Only misses are thrown, so no iteration ever finishes the game
+        residentCode = env.createActiveSession(2, 501);
+        storedCode = env.createActiveSession(2, 501);
+        for (int i = 1; i <= history; i++) {
+            env.service.processThrow(residentCode, miss);
+            env.service.processThrow(storedCode, miss);
+            if (i % FLUSH_EVERY == 0) {
+                env.flush(residentCode);
+                env.flush(storedCode);
+            }
+        }
+        env.flush(residentCode);
+        env.evict(storedCode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startCounting() {
+        statistics.clear();
+        operations = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportCounts() {
+        long ops = Math.max(operations, 1);
+        System.out.printf("%n  history %d: %.2f rows fetched, %.2f statements per operation%n",
+            history, (double) statistics.getEntityLoadCount() / ops,
+            (double) statistics.getPrepareStatementCount() / ops);
+    }
+
+    @Benchmark
+    public GameStateDTO throwDart() {
+        flushPeriodically();
+        return env.service.processThrow(residentCode, miss);
+    }
+
+    @Benchmark
+    public GameStateDTO throwThenUndo() {
+        flushPeriodically();
+        env.service.processThrow(residentCode, miss);
+        return env.service.undoLastThrow(residentCode);
+    }
+
+    @Benchmark
+    public GameStateDTO readStoredSession() {
+        operations++;
+        return env.service.getState(storedCode);
+    }
+
+    @Benchmark
+    public int eagerHistoryBaseline() {
+        operations++;
+        return env.loadWithFullHistory(storedCode);
+    }
+
+    // Flush statements are part of what a command costs, so they are counted too
+    private void flushPeriodically() {
+        if (++operations % FLUSH_EVERY == 0) {
+            env.flush(residentCode);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.dartcounter.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One session as a board sees it: a scorer connection sending commands at a
+ * fixed rate, and spectator connections subscribed to the session topic.
+ *
+ * Every command that changes the game moves the session on by exactly one
+ * version, so the scorer predicts the version each command will produce and
+ * notes the command's send time under it. A subscriber receiving a broadcast
+ * records the time since the send of every version it covers (a coalesced
+ * broadcast covers several). Send times are the scheduled ones, not the
+ * actual ones, so a backed-up sender cannot hide latency.
+ */
+final class Board {
+
+    enum Command {
+        THROW("throw", true),
+        UNDO("undo", true),
+        NEXT("next", true),
+        SYNC("sync", false),
+        // Sent by the scorer itself once a game is over
+        RESET("reset", true),
+        START("start", true);
+
+        private final String path;
+        private final boolean changesVersion;
+
+        Command(String path, boolean changesVersion) {
+            this.path = path;
+            this.changesVersion = changesVersion;
+        }
+
+        boolean isMixable() {
+            return this != RESET && this != START;
+        }
+    }
+
+    // Send times of the most recent versions; a multiple of two
+    private static final int WINDOW = 4096;
+    private static final long CONNECT_TIMEOUT_SECONDS = 10;
+
+    private final String code;
+    private final LoadOptions options;
+    private final LoadStats stats;
+    private final ObjectMapper objectMapper;
+    private final AtomicLongArray sentAt = new AtomicLongArray(WINDOW);
+    private final AtomicLong nextVersion;
+    private final Queue<Long> pendingSyncs = new ConcurrentLinkedQueue<>();
+    private final List<StompSession> connections = new ArrayList<>();
+    private StompSession scorer;
+
+    // As last broadcast to the scorer
+    private volatile long version;
+    private volatile String status;
+
+    // Only touched by the board's ticks, which never overlap
+    private int undoable;
+    private long nextTick;
+
+    private Board(String code, long version, LoadOptions options, LoadStats stats, ObjectMapper objectMapper) {
+        this.code = code;
+        this.version = version;
+        this.nextVersion = new AtomicLong(version + 1);
+        this.options = options;
+        this.stats = stats;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Creates a two-player session through the REST API, connects the scorer
+     * and the spectators and starts the game.
+     */
+    static Board open(RestClient rest, WebSocketStompClient stompClient, LoadOptions options, LoadStats stats,
+                      ObjectMapper objectMapper) throws Exception {
+        JsonNode created = rest.post()
+            .uri("/api/sessions")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of("playerNames", List.of("Home", "Away"), "startingScore", 501))
+            .retrieve()
+            .body(JsonNode.class);
+        Board board = new Board(created.get("sessionCode").asText(), created.get("version").asLong(),
+            options, stats, objectMapper);
+        try {
+            board.connect(stompClient);
+        } catch (Exception e) {
+            board.close(rest);
+            throw e;
+        }
+        return board;
+    }
+
+    /**
+     * Sends commands at the configured rate from the given start time on.
+     */
+    void schedule(ScheduledExecutorService ticks, long firstTick) {
+        long period = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        nextTick = firstTick;
+        ticks.scheduleAtFixedRate(() -> {
+            tick(nextTick);
+            nextTick += period;
+        }, firstTick - System.nanoTime(), period, TimeUnit.NANOSECONDS);
+    }
+
+    int connectionCount() {
+        return connections.size();
+    }
+
+    void close(RestClient rest) {
+        for (StompSession connection : connections) {
+            if (connection.isConnected()) {
+                connection.disconnect();
+            }
+        }
+        try {
+            rest.delete().uri("/api/sessions/{code}", code).retrieve().toBodilessEntity();
+        } catch (RuntimeException e) {
+            // Expires on the backend eventually
+        }
+    }
+
+    private void connect(WebSocketStompClient stompClient) throws Exception {
+        String url = options.url().replaceFirst("^http", "ws") + "/ws";
+        String topic = "/topic/session/" + code;
+
+        scorer = connect(stompClient, url);
+        scorer.subscribe(topic, new Subscriber(true));
+        scorer.subscribe("/user/queue/session/" + code, new ReplyHandler());
+        for (int i = 0; i < options.spectators(); i++) {
+            connect(stompClient, url).subscribe(topic, new Subscriber(false));
+        }
+        send(Command.START, System.nanoTime());
+    }
+
+    private StompSession connect(WebSocketStompClient stompClient, String url) throws Exception {
+        StompSession connection = stompClient.connectAsync(url, new ConnectionHandler())
+            .get(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        connections.add(connection);
+        return connection;
+    }
+
+    private void tick(long scheduled) {
+        String current = status;
+        if ("FINISHED".equals(current) || "LEG_FINISHED".equals(current)) {
+            // Until the reset is broadcast
+            status = "RESETTING";
+            undoable = 0;
+            send(Command.RESET, scheduled);
+            return;
+        }
+        if (!"ACTIVE".equals(current)) {
+            return;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Command command = options.pick(random.nextInt(options.totalWeight()));
+        if (command == Command.UNDO && undoable == 0) {
+            command = Command.THROW;
+        }
+        switch (command) {
+            case THROW -> undoable++;
+            case UNDO -> undoable--;
+            default -> { }
+        }
+        send(command, scheduled);
+    }
+
+    private void send(Command command, long scheduled) {
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination("/app/session/" + code + "/" + command.path);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+
+        byte[] body = switch (command) {
+            case THROW -> json(randomDart());
+            case SYNC -> json(Map.of("fromVersion", version));
+            default -> new byte[0];
+        };
+        long predicted = 0;
+        if (command.changesVersion) {
+            predicted = nextVersion.getAndIncrement();
+            sentAt.set((int) (predicted & (WINDOW - 1)), scheduled);
+        } else {
+            pendingSyncs.add(scheduled);
+        }
+
+        try {
+            scorer.send(headers, body);
+            stats.sent(command);
+        } catch (RuntimeException e) {
+            if (command.changesVersion) {
+                nextVersion.decrementAndGet();
+            }
+            stats.transportError();
+        }
+    }
+
+    // Mostly singles, some trebles and doubles, now and then the bull
+    private static Map<String, Integer> randomDart() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < 3) {
+            return Map.of("segment", 25, "multiplier", 1 + random.nextInt(2));
+        }
+        int roll = random.nextInt(100);
+        int multiplier = roll < 75 ? 1 : roll < 93 ? 3 : 2;
+        return Map.of("segment", 1 + random.nextInt(20), "multiplier", multiplier);
+    }
+
+    private byte[] json(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode parse(Object payload) {
+        try {
+            return objectMapper.readTree((byte[]) payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable message for session " + code, e);
+        }
+    }
+
+    /**
+     * Receives the session topic on one connection, full states and deltas alike.
+     */
+    private final class Subscriber implements StompFrameHandler {
+
+        private final boolean isScorer;
+        private long lastSeen = version;
+
+        Subscriber(boolean isScorer) {
+            this.isScorer = isScorer;
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long now = System.nanoTime();
+            JsonNode message = parse(payload);
+            stats.received();
+            long received = message.path("version").asLong(lastSeen);
+            for (long v = Math.max(lastSeen + 1, received - WINDOW + 1); v <= received; v++) {
+                long sent = sentAt.get((int) (v & (WINDOW - 1)));
+                if (sent != 0) {
+                    stats.broadcastReceived(sent, now);
+                }
+            }
+            if (received <= lastSeen) {
+                return;
+            }
+
+            if (isScorer) {
+                stats.applied(received - lastSeen);
+                version = received;
+                // Deltas only carry the status when it changed
+                if (message.hasNonNull("status")) {
+                    status = message.get("status").asText();
+                }
+            }
+            lastSeen = received;
+        }
+    }
+
+    /**
+     * Replies meant for the scorer alone: sync results and errors.
+     */
+    private final class ReplyHandler implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long now = System.nanoTime();
+            JsonNode message = parse(payload);
+            if (message.hasNonNull("version")) {
+                Long sent = pendingSyncs.poll();
+                if (sent != null) {
+                    stats.syncReplied(sent, now);
+                }
+                return;
+            }
+            // A rejected command did not move the version on. Which one it was is
+            // unknown, so commands already in flight may be attributed one version off.
+            stats.rejected();
+            nextVersion.decrementAndGet();
+        }
+    }
+
+    private final class ConnectionHandler extends StompSessionHandlerAdapter {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        // Only ERROR frames arrive here
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            stats.transportError();
+        }
+
+        @Override
+        public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+                                    byte[] payload, Throwable exception) {
+            stats.transportError();
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            stats.transportError();
+        }
+    }
+}
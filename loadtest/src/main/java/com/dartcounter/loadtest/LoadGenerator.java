@@ -0,0 +1,121 @@
+package com.dartcounter.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reproduces league-night traffic against one running backend. Each board
+ * creates a session over REST and connects a scorer and its spectators over
+ * STOMP; the scorers then send throws, undos, next-player commands and syncs
+ * at a fixed rate, whether or not earlier commands have been answered.
+ *
+ * One stage is run per board count, each on fresh sessions, and reported as
+ * a row: the offered and achieved rates, the latency from sending a command
+ * until a subscriber receives its broadcast (percentiles over every
+ * subscriber), sync round-trips, rejected commands and transport failures.
+ * The saturation point is the stage where the achieved rate stops following
+ * the offered one or the tail latency takes off.
+ *
+ * The backend's database is its own concern: start it with the local profile
+ * for H2, or point DATABASE_URL at a local PostgreSQL.
+ *
+ * Run with: java -jar loadtest/target/loadtest.jar --url=http://localhost:8080 --boards=50,100,200,400
+ */
+public final class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        ThreadPoolTaskScheduler heartbeats = new ThreadPoolTaskScheduler();
+        heartbeats.setPoolSize(2);
+        heartbeats.setThreadNamePrefix("stomp-heartbeat-");
+        heartbeats.initialize();
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        // Messages are parsed by the boards themselves, as JSON trees
+        stompClient.setMessageConverter(new ByteArrayMessageConverter());
+        stompClient.setTaskScheduler(heartbeats);
+        RestClient rest = RestClient.create(options.url());
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        System.out.printf("Loading %s: %d spectators per board, %.1f commands/s per board, mix %s%n",
+            options.url(), options.spectators(), options.rate(), options.mix());
+        LoadStats.printHeader();
+        try {
+            for (int boards : options.boards()) {
+                runStage(boards, options, stompClient, rest, objectMapper);
+            }
+        } finally {
+            heartbeats.shutdown();
+        }
+    }
+
+    private static void runStage(int boardCount, LoadOptions options, WebSocketStompClient stompClient,
+                                 RestClient rest, ObjectMapper objectMapper) throws InterruptedException {
+        LoadStats stats = new LoadStats();
+        List<Board> boards = new ArrayList<>(boardCount);
+
+        try (ExecutorService setup = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Board>> opening = new ArrayList<>(boardCount);
+            for (int i = 0; i < boardCount; i++) {
+                opening.add(setup.submit(() -> Board.open(rest, stompClient, options, stats, objectMapper)));
+            }
+            for (Future<Board> board : opening) {
+                try {
+                    boards.add(board.get());
+                } catch (ExecutionException e) {
+                    stats.connectFailed();
+                }
+            }
+        }
+
+        // Spread the boards' ticks over one period, rather than sending in bursts
+        ScheduledExecutorService ticks = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+        long period = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        long origin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        for (Board board : boards) {
+            board.schedule(ticks, origin + ThreadLocalRandom.current().nextLong(period));
+        }
+
+        try {
+            Thread.sleep(options.warmup().toMillis());
+            stats.startRecording();
+            Thread.sleep(options.duration().toMillis());
+            stats.stopRecording();
+        } finally {
+            ticks.shutdownNow();
+            ticks.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        int connections = boards.stream().mapToInt(Board::connectionCount).sum();
+        stats.printRow(boardCount, connections, boards.size() * options.rate());
+
+        try (ExecutorService teardown = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Board board : boards) {
+                teardown.submit(() -> board.close(rest));
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.dartcounter.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options, each given as {@code --name=value}.
+ *
+ * @param url        base URL of the backend
+ * @param boards     boards (sessions) per stage; one stage is run for each value, in order
+ * @param spectators spectator connections per board, besides the scorer's
+ * @param rate       commands per second sent by each scorer
+ * @param warmup     time per stage before measuring starts
+ * @param duration   measured time per stage
+ * @param mix        relative weights of the commands a scorer sends
+ */
+record LoadOptions(String url,
+                   List<Integer> boards,
+                   int spectators,
+                   double rate,
+                   Duration warmup,
+                   Duration duration,
+                   Map<Board.Command, Integer> mix) {
+
+    private static final Set<String> NAMES = Set.of("url", "boards", "spectators", "rate", "warmup", "duration", "mix");
+
+    static final String USAGE = """
+        Options:
+          --url=http://localhost:8080         backend to load
+          --boards=50[,100,...]                boards per stage, one stage per value
+          --spectators=2                       spectator connections per board
+          --rate=1                             commands per second per board
+          --warmup=10                          seconds per stage before measuring
+          --duration=60                        measured seconds per stage
+          --mix=throw:80,undo:5,next:5,sync:10 weights of the commands sent
+        """;
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0 || !NAMES.contains(arg.substring(2, separator))) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadOptions options = new LoadOptions(
+            values.getOrDefault("url", "http://localhost:8080").replaceAll("/+$", ""),
+            Arrays.stream(values.getOrDefault("boards", "50").split(","))
+                .map(value -> Integer.valueOf(value.trim()))
+                .toList(),
+            Integer.parseInt(values.getOrDefault("spectators", "2")),
+            Double.parseDouble(values.getOrDefault("rate", "1")),
+            Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+            Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+            parseMix(values.getOrDefault("mix", "throw:80,undo:5,next:5,sync:10")));
+
+        if (options.boards.stream().anyMatch(boards -> boards < 1) || options.spectators < 0 || options.rate <= 0) {
+            throw new IllegalArgumentException("Boards and rate must be positive, spectators not negative");
+        }
+        return options;
+    }
+
+    /**
+     * The command for a roll in [0, total weight).
+     */
+    Board.Command pick(int roll) {
+        for (Map.Entry<Board.Command, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        return Board.Command.THROW;
+    }
+
+    int totalWeight() {
+        return mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private static Map<Board.Command, Integer> parseMix(String value) {
+        Map<Board.Command, Integer> mix = new EnumMap<>(Board.Command.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.trim().split(":");
+            Board.Command command = Board.Command.valueOf(weight[0].toUpperCase());
+            if (!command.isMixable() || weight.length != 2) {
+                throw new IllegalArgumentException("Expected throw, undo, next or sync with a weight: " + part);
+            }
+            mix.put(command, Integer.parseInt(weight[1]));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The command mix needs a positive weight");
+        }
+        return mix;
+    }
+}
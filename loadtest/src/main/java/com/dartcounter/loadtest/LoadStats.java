@@ -0,0 +1,138 @@
+package com.dartcounter.loadtest;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What one stage measured. Nothing is recorded outside the measured window.
+ */
+final class LoadStats {
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Timer broadcastLatency;
+    private final Timer syncLatency;
+    private final Map<Board.Command, LongAdder> sent = new EnumMap<>(Board.Command.class);
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder transportErrors = new LongAdder();
+    private final LongAdder connectFailures = new LongAdder();
+
+    private volatile boolean recording;
+    private long recordingStarted;
+    private long recordingNanos;
+
+    LoadStats() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        this.broadcastLatency = latencyTimer(registry, "loadtest.broadcast.latency");
+        this.syncLatency = latencyTimer(registry, "loadtest.sync.latency");
+        for (Board.Command command : Board.Command.values()) {
+            sent.put(command, new LongAdder());
+        }
+    }
+
+    void startRecording() {
+        recordingStarted = System.nanoTime();
+        recording = true;
+    }
+
+    void stopRecording() {
+        recording = false;
+        recordingNanos = System.nanoTime() - recordingStarted;
+    }
+
+    /**
+     * From the intended send time of a command to a subscriber receiving the broadcast with its result.
+     */
+    void broadcastReceived(long sentNanos, long receivedNanos) {
+        if (recording) {
+            broadcastLatency.record(receivedNanos - sentNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void syncReplied(long sentNanos, long receivedNanos) {
+        if (recording) {
+            syncLatency.record(receivedNanos - sentNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void sent(Board.Command command) {
+        if (recording) {
+            sent.get(command).increment();
+        }
+    }
+
+    // Versions the scorers saw the session move on by
+    void applied(long versions) {
+        if (recording) {
+            applied.add(versions);
+        }
+    }
+
+    void received() {
+        if (recording) {
+            received.increment();
+        }
+    }
+
+    // Commands the backend answered with an error
+    void rejected() {
+        if (recording) {
+            rejected.increment();
+        }
+    }
+
+    // Failed sends, STOMP errors and lost connections; counted at any time
+    void transportError() {
+        transportErrors.increment();
+    }
+
+    void connectFailed() {
+        connectFailures.increment();
+    }
+
+    static void printHeader() {
+        System.out.printf("%6s %6s %9s %9s %9s %9s | %8s %8s %8s %8s %8s | %8s | %8s %6s %6s%n",
+            "boards", "conns", "offered/s", "sent/s", "applied/s", "recv/s",
+            "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "sync p99", "reject %", "xport", "conn");
+    }
+
+    void printRow(int boards, int connections, double offeredPerSecond) {
+        double seconds = recordingNanos / 1e9;
+        long sentTotal = sent.values().stream().mapToLong(LongAdder::sum).sum();
+        HistogramSnapshot broadcast = broadcastLatency.takeSnapshot();
+        HistogramSnapshot sync = syncLatency.takeSnapshot();
+        System.out.printf("%6d %6d %9.1f %9.1f %9.1f %9.1f | %8.1f %8.1f %8.1f %8.1f %8.1f | %8.1f | %8.2f %6d %6d%n",
+            boards, connections, offeredPerSecond,
+            sentTotal / seconds, applied.sum() / seconds, received.sum() / seconds,
+            percentile(broadcast, 0), percentile(broadcast, 1), percentile(broadcast, 2), percentile(broadcast, 3),
+            broadcast.max(TimeUnit.MILLISECONDS),
+            percentile(sync, 2),
+            sentTotal == 0 ? 0.0 : rejected.sum() * 100.0 / sentTotal,
+            transportErrors.sum(), connectFailures.sum());
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, int index) {
+        ValueAtPercentile[] values = snapshot.percentileValues();
+        return index < values.length ? values[index].value(TimeUnit.MILLISECONDS) : Double.NaN;
+    }
+
+    // One histogram over the whole stage rather than a rotating window
+    private static Timer latencyTimer(SimpleMeterRegistry registry, String name) {
+        return Timer.builder(name)
+            .publishPercentiles(PERCENTILES)
+            .percentilePrecision(2)
+            .distributionStatisticExpiry(Duration.ofDays(1))
+            .distributionStatisticBufferLength(1)
+            .register(registry);
+    }
+}
@@ -0,0 +1,35 @@
+package com.dartcounter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * STOMP broker settings. In "simple" mode broadcasts stay inside this JVM;
+ * in "relay" mode they go through an external STOMP broker so that every node
+ * can reach its subscribers.
+ */
+@Component
+@ConfigurationProperties(prefix = "dartcounter.broker")
+@Data
+public class BrokerProperties {
+
+    public enum Mode { SIMPLE, RELAY }
+
+    private Mode mode = Mode.SIMPLE;
+
+    private String relayHost = "localhost";
+    private int relayPort = 61613;
+    private String clientLogin = "guest";
+    private String clientPasscode = "guest";
+    private String systemLogin = "guest";
+    private String systemPasscode = "guest";
+    private String virtualHost;
+
+    // Start an embedded Artemis STOMP broker on relayPort as a local stand-in
+    private boolean embedded = false;
+
+    public boolean isRelay() {
+        return mode == Mode.RELAY;
+    }
+}
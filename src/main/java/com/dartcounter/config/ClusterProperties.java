@@ -0,0 +1,23 @@
+package com.dartcounter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Nodes sharing the broker relay. Each session is owned by exactly one node,
+ * which computes its state; the others forward commands to it.
+ */
+@Component
+@ConfigurationProperties(prefix = "dartcounter.cluster")
+@Data
+public class ClusterProperties {
+
+    private String nodeId = "local";
+
+    // All node ids; empty means a single node owns every session
+    private List<String> nodes = new ArrayList<>();
+}
@@ -0,0 +1,35 @@
+package com.dartcounter.config;
+
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Starts an in-memory Artemis server with a STOMP acceptor on the relay port,
+ * so relay mode can run against a broker inside this JVM during development
+ * and tests. Only the core server is used, no JMS; it is an optional
+ * dependency and not part of the packaged jar.
+ */
+@org.springframework.context.annotation.Configuration
+@ConditionalOnProperty(name = "dartcounter.broker.embedded", havingValue = "true")
+@ConditionalOnClass(name = "org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ")
+public class EmbeddedStompBrokerConfig {
+
+    // Started before the relay connects, which happens once the context is refreshed
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public EmbeddedActiveMQ embeddedStompBroker(BrokerProperties broker) throws Exception {
+        String acceptor = "tcp://" + broker.getRelayHost() + ":" + broker.getRelayPort()
+            + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/";
+        Configuration configuration = new ConfigurationImpl()
+            .setPersistenceEnabled(false)
+            .setSecurityEnabled(false)
+            .addAcceptorConfiguration("stomp", acceptor);
+
+        EmbeddedActiveMQ server = new EmbeddedActiveMQ();
+        server.setConfiguration(configuration);
+        return server;
+    }
+}
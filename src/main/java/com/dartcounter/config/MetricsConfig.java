@@ -0,0 +1,30 @@
+package com.dartcounter.config;
+
+import com.dartcounter.service.LiveSessionRegistry;
+import com.dartcounter.service.SessionCommandExecutor;
+import com.dartcounter.service.TopicSubscriptionTracker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder gameGauges(LiveSessionRegistry liveSessions,
+                                  SessionCommandExecutor commandExecutor,
+                                  TopicSubscriptionTracker subscriptions) {
+        return registry -> {
+            Gauge.builder("dartcounter.sessions.active", liveSessions, LiveSessionRegistry::size)
+                .description("Sessions resident in memory on this node")
+                .register(registry);
+            Gauge.builder("dartcounter.mailboxes.pending", commandExecutor, SessionCommandExecutor::pendingMailboxes)
+                .description("Sessions with commands queued or running")
+                .register(registry);
+            Gauge.builder("dartcounter.stomp.subscriptions", subscriptions, TopicSubscriptionTracker::total)
+                .description("STOMP subscriptions held by clients connected to this node")
+                .register(registry);
+        };
+    }
+}
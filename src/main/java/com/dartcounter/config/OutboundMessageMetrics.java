@@ -0,0 +1,52 @@
+package com.dartcounter.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the payload size of every STOMP frame written to clients, by
+ * destination prefix.
+ */
+@Component
+public class OutboundMessageMetrics implements ChannelInterceptor {
+
+    private final DistributionSummary topicBytes;
+    private final DistributionSummary queueBytes;
+    private final DistributionSummary otherBytes;
+
+    public OutboundMessageMetrics(MeterRegistry registry) {
+        this.topicBytes = bytesSummary(registry, "topic");
+        this.queueBytes = bytesSummary(registry, "queue");
+        this.otherBytes = bytesSummary(registry, "other");
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (message.getPayload() instanceof byte[] payload && payload.length > 0) {
+            String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+            if (destination == null) {
+                otherBytes.record(payload.length);
+            } else if (destination.startsWith("/topic")) {
+                topicBytes.record(payload.length);
+            } else if (destination.startsWith("/user") || destination.startsWith("/queue")) {
+                queueBytes.record(payload.length);
+            } else {
+                otherBytes.record(payload.length);
+            }
+        }
+        return message;
+    }
+
+    private static DistributionSummary bytesSummary(MeterRegistry registry, String destination) {
+        return DistributionSummary.builder("dartcounter.stomp.outbound")
+            .description("Payload size of messages sent to STOMP clients")
+            .baseUnit("bytes")
+            .tag("destination", destination)
+            .register(registry);
+    }
+}
@@ -1,20 +1,50 @@
 package com.dartcounter.config;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final BrokerProperties broker;
+    private final OutboundMessageMetrics outboundMessageMetrics;
+    private final WireFormatNegotiation wireFormatNegotiation;
+
+    @Value("${dartcounter.websocket.send-buffer-size-limit:65536}")
+    private int sendBufferSizeLimit;
+
+    @Value("${dartcounter.websocket.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker
         // Clients subscribe to /topic/session/{code} to receive updates
-        config.enableSimpleBroker("/topic");
+        // and to /user/queue/session/{code} for replies meant only for them
+        if (broker.isRelay()) {
+            // External STOMP broker, shared by all nodes
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(broker.getRelayHost())
+                .setRelayPort(broker.getRelayPort())
+                .setClientLogin(broker.getClientLogin())
+                .setClientPasscode(broker.getClientPasscode())
+                .setSystemLogin(broker.getSystemLogin())
+                .setSystemPasscode(broker.getSystemPasscode());
+            if (broker.getVirtualHost() != null) {
+                relay.setVirtualHost(broker.getVirtualHost());
+            }
+        } else {
+            // Simple in-memory message broker, single node only
+            config.enableSimpleBroker("/topic", "/queue");
+        }
 
         // Prefix for messages FROM clients TO server
         // Clients send to /app/session/{code}/throw, /app/session/{code}/undo, etc.
@@ -32,4 +62,23 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
             .setAllowedOriginPatterns("*");
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Frames queued for a slow client are bounded; a client that stays behind
+        // is disconnected, and reconnects and syncs instead of replaying the backlog
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+            .setSendTimeLimit(sendTimeLimitMs);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Binary subscriptions, see WireFormat
+        registration.interceptors(wireFormatNegotiation);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(outboundMessageMetrics);
+    }
 }
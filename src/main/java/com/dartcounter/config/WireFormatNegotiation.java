@@ -0,0 +1,33 @@
+package com.dartcounter.config;
+
+import com.dartcounter.service.WireFormat;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves subscriptions to a session topic that ask for the binary content type
+ * over to its binary counterpart, see {@link WireFormat}.
+ */
+@Component
+public class WireFormatNegotiation implements ChannelInterceptor {
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        String negotiated = WireFormat.subscriptionDestination(destination, accessor.getContentType());
+        if (negotiated == null || negotiated.equals(destination)) {
+            return message;
+        }
+        accessor.setDestination(negotiated);
+        return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+    }
+}
@@ -1,112 +1,152 @@
 package com.dartcounter.controller;
 
-import com.dartcounter.dto.GameStateDTO;
+import com.dartcounter.dto.GameCommand;
+import com.dartcounter.dto.SyncRequest;
+import com.dartcounter.dto.ThrowBatchRequest;
 import com.dartcounter.dto.ThrowRequest;
-import com.dartcounter.service.GameSessionService;
+import com.dartcounter.service.GameBroadcaster;
+import com.dartcounter.service.GameCommandDispatcher;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
 
+import java.util.stream.Collectors;
+
+/**
+ * STOMP handlers for game commands. Commands are handed to the
+ * {@link GameCommandDispatcher}, which runs them on the owning node's session
+ * mailbox and broadcasts the resulting state to /topic/session/{code}.
+ *
+ * Errors, conflicts and sync replies go only to the requesting client on
+ * /user/queue/session/{code}.
+ */
 @Controller
 @RequiredArgsConstructor
 @Slf4j
 public class GameWebSocketController {
 
-    private final GameSessionService sessionService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final GameCommandDispatcher dispatcher;
+    private final GameBroadcaster broadcaster;
 
     @MessageMapping("/session/{code}/throw")
-    @SendTo("/topic/session/{code}")
-    public GameStateDTO handleThrow(
+    public void handleThrow(
+            @DestinationVariable String code,
+            @Valid @Payload ThrowRequest request,
+            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        log.info("Throw received for session {}: segment {} x{}", code, request.getSegment(), request.getMultiplier());
+        dispatcher.dispatch(GameCommand.builder()
+            .type(GameCommand.Type.THROW)
+            .sessionCode(code)
+            .replySessionId(sessionId)
+            .throwRequest(request)
+            .build());
+    }
+
+    /**
+     * Up to three darts of one visit, applied atomically with a single broadcast.
+     */
+    @MessageMapping("/session/{code}/throw-batch")
+    public void handleThrowBatch(
             @DestinationVariable String code,
-            ThrowRequest request) {
-        log.info("Throw received for session {}: {} points", code, request.getPoints());
-        try {
-            return sessionService.processThrow(code, request);
-        } catch (Exception e) {
-            log.error("Error processing throw for session {}: {}", code, e.getMessage());
-            return createErrorState(code, e.getMessage());
-        }
+            @Valid @Payload ThrowBatchRequest request,
+            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        log.info("Throw batch received for session {}: {} darts", code, request.getDarts().size());
+        dispatcher.dispatch(GameCommand.builder()
+            .type(GameCommand.Type.THROW_BATCH)
+            .sessionCode(code)
+            .replySessionId(sessionId)
+            .throwBatch(request)
+            .build());
     }
 
     @MessageMapping("/session/{code}/undo")
-    @SendTo("/topic/session/{code}")
-    public GameStateDTO handleUndo(@DestinationVariable String code) {
+    public void handleUndo(
+            @DestinationVariable String code,
+            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
         log.info("Undo requested for session {}", code);
-        try {
-            return sessionService.undoLastThrow(code);
-        } catch (Exception e) {
-            log.error("Error undoing throw for session {}: {}", code, e.getMessage());
-            return createErrorState(code, e.getMessage());
-        }
+        dispatcher.dispatch(command(GameCommand.Type.UNDO, code, sessionId));
     }
 
     @MessageMapping("/session/{code}/next")
-    @SendTo("/topic/session/{code}")
-    public GameStateDTO handleNextPlayer(@DestinationVariable String code) {
+    public void handleNextPlayer(
+            @DestinationVariable String code,
+            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
         log.info("Next player requested for session {}", code);
-        try {
-            return sessionService.nextPlayer(code);
-        } catch (Exception e) {
-            log.error("Error advancing player for session {}: {}", code, e.getMessage());
-            return createErrorState(code, e.getMessage());
-        }
+        dispatcher.dispatch(command(GameCommand.Type.NEXT, code, sessionId));
     }
 
     @MessageMapping("/session/{code}/reset")
-    @SendTo("/topic/session/{code}")
-    public GameStateDTO handleReset(@DestinationVariable String code) {
+    public void handleReset(
+            @DestinationVariable String code,
+            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
         log.info("Reset requested for session {}", code);
-        try {
-            return sessionService.resetGame(code);
-        } catch (Exception e) {
-            log.error("Error resetting game for session {}: {}", code, e.getMessage());
-            return createErrorState(code, e.getMessage());
-        }
+        dispatcher.dispatch(command(GameCommand.Type.RESET, code, sessionId));
+    }
+
+    @MessageMapping("/session/{code}/next-leg")
+    public void handleNextLeg(
+            @DestinationVariable String code,
+            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        log.info("Next leg requested for session {}", code);
+        dispatcher.dispatch(command(GameCommand.Type.NEXT_LEG, code, sessionId));
     }
 
     @MessageMapping("/session/{code}/start")
-    @SendTo("/topic/session/{code}")
-    public GameStateDTO handleStart(@DestinationVariable String code) {
+    public void handleStart(
+            @DestinationVariable String code,
+            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
         log.info("Start game requested for session {}", code);
-        try {
-            var session = sessionService.startGame(code);
-            return GameStateDTO.from(session, "Game started!");
-        } catch (Exception e) {
-            log.error("Error starting game for session {}: {}", code, e.getMessage());
-            return createErrorState(code, e.getMessage());
-        }
+        dispatcher.dispatch(command(GameCommand.Type.START, code, sessionId));
     }
 
+    /**
+     * Replies to the requesting client only, with the changes since its
+     * {@code fromVersion} or a full snapshot if that version is unknown.
+     */
     @MessageMapping("/session/{code}/sync")
-    @SendTo("/topic/session/{code}")
-    public GameStateDTO handleSync(@DestinationVariable String code) {
-        log.info("Sync requested for session {}", code);
-        try {
-            var session = sessionService.getSession(code);
-            return GameStateDTO.from(session);
-        } catch (Exception e) {
-            log.error("Error syncing session {}: {}", code, e.getMessage());
-            return createErrorState(code, e.getMessage());
-        }
-    }
-
-    private GameStateDTO createErrorState(String code, String errorMessage) {
-        return GameStateDTO.builder()
-            .sessionCode(code)
-            .message("Error: " + errorMessage)
-            .build();
+    public void handleSync(
+            @DestinationVariable String code,
+            @Payload(required = false) SyncRequest request,
+            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        Long fromVersion = request != null ? request.getFromVersion() : null;
+        log.info("Sync requested for session {} from version {}", code, fromVersion);
+        GameCommand command = command(GameCommand.Type.SYNC, code, sessionId);
+        command.setFromVersion(fromVersion);
+        dispatcher.dispatch(command);
     }
 
     /**
-     * Broadcasts a state update to all clients subscribed to a session.
-     * Can be called from other services when needed.
+     * Invalid or missing payloads are answered like any other rejected command,
+     * with the constraint messages, and never reach the session.
      */
-    public void broadcastState(String sessionCode, GameStateDTO state) {
-        messagingTemplate.convertAndSend("/topic/session/" + sessionCode, state);
+    @MessageExceptionHandler(MethodArgumentNotValidException.class)
+    public void handleValidationErrors(
+            @DestinationVariable String code,
+            MethodArgumentNotValidException ex,
+            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        String errors = ex.getBindingResult() == null
+            ? "A payload is required"
+            : ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+
+        log.warn("Validation error for session {}: {}", code, errors);
+        broadcaster.sendError(sessionId, code, errors);
+    }
+
+    private GameCommand command(GameCommand.Type type, String code, String sessionId) {
+        return GameCommand.builder()
+            .type(type)
+            .sessionCode(code)
+            .replySessionId(sessionId)
+            .build();
     }
 }
@@ -2,16 +2,36 @@ package com.dartcounter.controller;
 
 import com.dartcounter.dto.CreateSessionRequest;
 import com.dartcounter.dto.ErrorResponse;
+import com.dartcounter.dto.GameCommand;
 import com.dartcounter.dto.GameStateDTO;
 import com.dartcounter.dto.JoinSessionRequest;
+import com.dartcounter.dto.LegSummaryDTO;
+import com.dartcounter.dto.PlayerStatsDTO;
+import com.dartcounter.dto.ThrowBatchRequest;
 import com.dartcounter.entity.GameSession;
+import com.dartcounter.service.GameCommandDispatcher;
 import com.dartcounter.service.GameSessionService;
+import com.dartcounter.service.GameStateCache;
+import com.dartcounter.service.HistoryExporter;
+import com.dartcounter.service.SessionAffinity;
+import com.dartcounter.service.VersionConflictException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/sessions")
@@ -21,6 +41,9 @@ import org.springframework.web.bind.annotation.*;
 public class SessionController {
 
     private final GameSessionService sessionService;
+    private final GameCommandDispatcher dispatcher;
+    private final SessionAffinity affinity;
+    private final HistoryExporter historyExporter;
 
     @PostMapping
     public ResponseEntity<GameStateDTO> createSession(@Valid @RequestBody CreateSessionRequest request) {
@@ -29,11 +52,64 @@ public class SessionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(GameStateDTO.from(session));
     }
 
+    /**
+     * Returns the current state with its version and creation time as ETag, so
+     * that polling clients sending If-None-Match get a 304 without a body while
+     * nothing changed. Served from the state cache when this node owns the session.
+     */
     @GetMapping("/{code}")
-    public ResponseEntity<GameStateDTO> getSession(@PathVariable String code) {
-        log.info("Getting session {}", code);
+    public ResponseEntity<?> getSession(@PathVariable String code) {
+        log.debug("Getting session {}", code);
+        if (!affinity.isLocal(code)) {
+            GameStateDTO state = sessionService.getState(code);
+            return ResponseEntity.ok()
+                .eTag(eTag(state))
+                .cacheControl(CacheControl.noCache())
+                .body(state);
+        }
+        GameStateCache.CachedState cached = sessionService.getCachedState(code);
+        return ResponseEntity.ok()
+            .eTag(eTag(cached.state()))
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(cached.json());
+    }
+
+    @GetMapping("/{code}/stats")
+    public ResponseEntity<List<PlayerStatsDTO>> getStats(@PathVariable String code) {
+        log.debug("Getting stats of session {}", code);
+        return ResponseEntity.ok(sessionService.getStats(code));
+    }
+
+    /**
+     * Streams the event log of a session as NDJSON (default) or CSV.
+     */
+    @GetMapping("/{code}/history")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @PathVariable String code,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        HistoryExporter.Format exportFormat = HistoryExporter.Format.parse(format);
         GameSession session = sessionService.getSession(code);
-        return ResponseEntity.ok(GameStateDTO.from(session));
+        log.info("Exporting history of session {} as {}", session.getSessionCode(), exportFormat);
+        return exportResponse(exportFormat, "history-" + session.getSessionCode(),
+            out -> historyExporter.exportSession(session, exportFormat, out));
+    }
+
+    /**
+     * Streams the event logs of all sessions created between two dates, both inclusive.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        HistoryExporter.Format exportFormat = HistoryExporter.Format.parse(format);
+        if (to.isBefore(from)) {
+            throw new IllegalStateException("Export range ends before it starts");
+        }
+        log.info("Exporting history of sessions created from {} to {} as {}", from, to, exportFormat);
+        return exportResponse(exportFormat, "history-" + from + "-" + to,
+            out -> historyExporter.exportRange(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), exportFormat, out));
     }
 
     @PostMapping("/{code}/join")
@@ -41,24 +117,71 @@ public class SessionController {
             @PathVariable String code,
             @RequestBody(required = false) JoinSessionRequest request) {
         log.info("Joining session {}", code);
-        GameSession session = sessionService.joinSession(code);
-        return ResponseEntity.ok(GameStateDTO.from(session));
+        return ResponseEntity.ok(sessionService.joinSession(code));
     }
 
     @PostMapping("/{code}/start")
     public ResponseEntity<GameStateDTO> startGame(@PathVariable String code) {
         log.info("Starting game for session {}", code);
-        GameSession session = sessionService.startGame(code);
-        return ResponseEntity.ok(GameStateDTO.from(session));
+        if (!affinity.isLocal(code)) {
+            return forwardToOwner(GameCommand.Type.START, code);
+        }
+        return ResponseEntity.ok(sessionService.startGame(code));
+    }
+
+    @PostMapping("/{code}/next-leg")
+    public ResponseEntity<GameStateDTO> nextLeg(@PathVariable String code) {
+        log.info("Starting next leg for session {}", code);
+        if (!affinity.isLocal(code)) {
+            return forwardToOwner(GameCommand.Type.NEXT_LEG, code);
+        }
+        return ResponseEntity.ok(sessionService.nextLeg(code));
+    }
+
+    @GetMapping("/{code}/legs")
+    public ResponseEntity<List<LegSummaryDTO>> getLegs(@PathVariable String code) {
+        log.debug("Getting legs of session {}", code);
+        return ResponseEntity.ok(sessionService.getLegs(code));
     }
 
     @PostMapping("/{code}/reset")
     public ResponseEntity<GameStateDTO> resetGame(@PathVariable String code) {
         log.info("Resetting game for session {}", code);
+        if (!affinity.isLocal(code)) {
+            return forwardToOwner(GameCommand.Type.RESET, code);
+        }
         GameStateDTO state = sessionService.resetGame(code);
         return ResponseEntity.ok(state);
     }
 
+    /**
+     * Applies up to a full visit of darts atomically. Runs on the session's
+     * mailbox like the STOMP commands, so connected clients get the broadcast.
+     */
+    @PostMapping("/{code}/throw-batch")
+    public ResponseEntity<GameStateDTO> throwBatch(
+            @PathVariable String code,
+            @Valid @RequestBody ThrowBatchRequest request) {
+        log.info("Throw batch for session {}: {} darts", code, request.getDarts().size());
+        GameCommand command = GameCommand.builder()
+            .type(GameCommand.Type.THROW_BATCH)
+            .sessionCode(code)
+            .throwBatch(request)
+            .build();
+        if (!affinity.isLocal(code)) {
+            return forwardToOwner(command);
+        }
+        try {
+            return ResponseEntity.ok(dispatcher.execute(command).join());
+        } catch (CompletionException e) {
+            // Let the exception handlers below map the actual failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     @DeleteMapping("/{code}")
     public ResponseEntity<Void> deleteSession(@PathVariable String code) {
         log.info("Deleting session {}", code);
@@ -72,6 +195,39 @@ public class SessionController {
             .body(new ErrorResponse("NOT_FOUND", ex.getMessage()));
     }
 
+    private ResponseEntity<StreamingResponseBody> exportResponse(HistoryExporter.Format format, String name,
+                                                                 StreamingResponseBody body) {
+        String filename = name + "." + format.name().toLowerCase();
+        return ResponseEntity.ok()
+            .contentType(format.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
+    }
+
+    // Codes of expired sessions are reused, so the version alone could match an ETag of the earlier session
+    private static String eTag(GameStateDTO state) {
+        long created = state.getCreatedAt() != null ? state.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+        return state.getVersion() + "-" + Long.toString(created, 36);
+    }
+
+    /**
+     * Another node owns the session: hand the command over and report the last
+     * persisted state. The result reaches the clients through the broadcast.
+     */
+    private ResponseEntity<GameStateDTO> forwardToOwner(GameCommand.Type type, String code) {
+        return forwardToOwner(GameCommand.builder().type(type).sessionCode(code).build());
+    }
+
+    private ResponseEntity<GameStateDTO> forwardToOwner(GameCommand command) {
+        dispatcher.dispatch(command);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(sessionService.getState(command.getSessionCode()));
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<GameStateDTO> handleConflict(VersionConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getCurrentState());
+    }
+
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<ErrorResponse> handleBadState(IllegalStateException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
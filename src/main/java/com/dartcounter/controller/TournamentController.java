@@ -0,0 +1,51 @@
+package com.dartcounter.controller;
+
+import com.dartcounter.dto.CreateTournamentRequest;
+import com.dartcounter.dto.ErrorResponse;
+import com.dartcounter.dto.TournamentDTO;
+import com.dartcounter.service.TournamentService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tournaments")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class TournamentController {
+
+    private final TournamentService tournamentService;
+
+    /**
+     * Creates the bracket and starts the first matches, one session per board.
+     * Boards find their session in the returned matches.
+     */
+    @PostMapping
+    public ResponseEntity<TournamentDTO> createTournament(@Valid @RequestBody CreateTournamentRequest request) {
+        log.info("Creating tournament {} with {} players on {} boards",
+            request.getName(), request.getPlayerNames().size(), request.getBoards());
+        return ResponseEntity.status(HttpStatus.CREATED).body(tournamentService.createTournament(request));
+    }
+
+    @GetMapping("/{code}")
+    public ResponseEntity<TournamentDTO> getTournament(@PathVariable String code) {
+        log.debug("Getting tournament {}", code);
+        return ResponseEntity.ok(tournamentService.getTournament(code));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleNotFound(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(new ErrorResponse("NOT_FOUND", ex.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<ErrorResponse> handleBadState(IllegalStateException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            .body(new ErrorResponse("BAD_REQUEST", ex.getMessage()));
+    }
+}
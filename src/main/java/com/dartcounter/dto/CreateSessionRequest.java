@@ -1,7 +1,12 @@
 package com.dartcounter.dto;
 
+import com.dartcounter.entity.InMode;
+import com.dartcounter.entity.OutMode;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.util.List;
@@ -10,8 +15,25 @@ import java.util.List;
 public class CreateSessionRequest {
 
     @NotEmpty(message = "At least one player is required")
+    @Size(max = 32, message = "At most 32 players are allowed")
     private List<String> playerNames;
 
     @NotNull(message = "Starting score is required")
+    @Max(value = 100_000, message = "Starting score must be at most 100000")
     private Integer startingScore = 301;
+
+    @NotNull(message = "Out mode is required")
+    private OutMode outMode = OutMode.DOUBLE;
+
+    @NotNull(message = "In mode is required")
+    private InMode inMode = InMode.STRAIGHT;
+
+    // First to this many legs wins a set, first to this many sets the match
+    @Min(value = 1, message = "A set needs at least one leg")
+    @Max(value = 99, message = "At most 99 legs per set are allowed")
+    private int legsPerSet = 1;
+
+    @Min(value = 1, message = "A match needs at least one set")
+    @Max(value = 99, message = "At most 99 sets are allowed")
+    private int setsToWin = 1;
 }
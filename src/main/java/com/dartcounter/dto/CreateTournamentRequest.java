@@ -0,0 +1,47 @@
+package com.dartcounter.dto;
+
+import com.dartcounter.entity.InMode;
+import com.dartcounter.entity.OutMode;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CreateTournamentRequest {
+
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must be at most 100 characters")
+    private String name;
+
+    // In seeding order; byes go to the first players when the field is not a power of two
+    @NotNull(message = "Players are required")
+    @Size(min = 2, max = 1024, message = "Between 2 and 1024 players are allowed")
+    private List<String> playerNames;
+
+    @Min(value = 1, message = "At least one board is required")
+    @Max(value = 512, message = "At most 512 boards are allowed")
+    private int boards = 1;
+
+    @NotNull(message = "Starting score is required")
+    @Max(value = 100_000, message = "Starting score must be at most 100000")
+    private Integer startingScore = 501;
+
+    @NotNull(message = "Out mode is required")
+    private OutMode outMode = OutMode.DOUBLE;
+
+    @NotNull(message = "In mode is required")
+    private InMode inMode = InMode.STRAIGHT;
+
+    @Min(value = 1, message = "A set needs at least one leg")
+    @Max(value = 99, message = "At most 99 legs per set are allowed")
+    private int legsPerSet = 1;
+
+    @Min(value = 1, message = "A match needs at least one set")
+    @Max(value = 99, message = "At most 99 sets are allowed")
+    private int setsToWin = 1;
+}
@@ -0,0 +1,29 @@
+package com.dartcounter.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A game command as received over STOMP. Serializable so that it can be
+ * forwarded through the broker to the node that owns the session.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameCommand {
+
+    public enum Type { THROW, THROW_BATCH, UNDO, NEXT, RESET, START, SYNC, NEXT_LEG }
+
+    private Type type;
+    private String sessionCode;
+
+    // STOMP session that issued the command; errors and sync replies go only there
+    private String replySessionId;
+
+    private ThrowRequest throwRequest;
+    private ThrowBatchRequest throwBatch;
+    private Long fromVersion;
+}
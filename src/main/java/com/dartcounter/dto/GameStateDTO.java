@@ -1,11 +1,17 @@
 package com.dartcounter.dto;
 
 import com.dartcounter.entity.GameSession;
+import com.dartcounter.entity.GameStatus;
+import com.dartcounter.entity.InMode;
+import com.dartcounter.entity.Player;
+import com.dartcounter.service.CheckoutTable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -19,10 +25,22 @@ public class GameStateDTO {
     private Integer currentPlayerIndex;
     private Integer dartsThrown;
     private Integer startingScore;
+    private String outMode;
+    private String inMode;
     private String status;
     private String winnerName;
     private Long version;
     private String message;
+    // Best checkout route for the current player's visit; empty if out of reach
+    private List<String> checkout;
+    // Match format and position; a single-leg game is one set of one leg
+    private Integer legsPerSet;
+    private Integer setsToWin;
+    private Integer setNumber;
+    private Integer legNumber;
+    // Tells a session apart from an earlier one with the same, since recycled, code
+    @JsonIgnore
+    private LocalDateTime createdAt;
 
     public static GameStateDTO from(GameSession session) {
         return GameStateDTO.builder()
@@ -33,9 +51,17 @@ public class GameStateDTO {
             .currentPlayerIndex(session.getCurrentPlayerIndex())
             .dartsThrown(session.getDartsThrown())
             .startingScore(session.getStartingScore())
+            .outMode(session.getOutMode().name())
+            .inMode(session.getInMode().name())
             .status(session.getStatus().name())
             .winnerName(session.getWinnerName())
             .version(session.getVersion())
+            .checkout(checkoutFor(session))
+            .legsPerSet(session.getMatch().getLegsPerSet())
+            .setsToWin(session.getMatch().getSetsToWin())
+            .setNumber(session.getMatch().getSetNumber())
+            .legNumber(session.getMatch().getLegNumber())
+            .createdAt(session.getCreatedAt())
             .build();
     }
 
@@ -44,4 +70,17 @@ public class GameStateDTO {
         dto.setMessage(message);
         return dto;
     }
+
+    private static List<String> checkoutFor(GameSession session) {
+        Player player = session.getCurrentPlayer();
+        if (session.getStatus() != GameStatus.ACTIVE || player == null) {
+            return List.of();
+        }
+        if (session.getInMode() == InMode.DOUBLE && player.getScore() >= session.getStartingScore()) {
+            // Not opened yet
+            return List.of();
+        }
+        return CheckoutTable.route(session.getOutMode(), player.getScore(),
+            CheckoutTable.MAX_DARTS - session.getDartsThrown());
+    }
 }
@@ -0,0 +1,85 @@
+package com.dartcounter.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The fields of a {@link GameStateDTO} that changed between {@code baseVersion} and {@code version}.
+ * Unchanged fields are omitted from the JSON; {@code players} only contains changed players, keyed by index.
+ * A client may only apply a delta when its own state is exactly at {@code baseVersion}.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameStateDelta {
+
+    private String sessionCode;
+    private Long baseVersion;
+    private Long version;
+    private Map<Integer, PlayerDTO> players;
+    private Integer currentPlayerIndex;
+    private Integer dartsThrown;
+    private String status;
+    private String winnerName;
+    private String message;
+    private List<String> checkout;
+    private Integer setNumber;
+    private Integer legNumber;
+
+    /**
+     * Computes the delta from one state to another, or null if it cannot be
+     * expressed as a delta (e.g. the player list changed size).
+     */
+    public static GameStateDelta between(GameStateDTO base, GameStateDTO target) {
+        List<PlayerDTO> basePlayers = base.getPlayers();
+        List<PlayerDTO> targetPlayers = target.getPlayers();
+        if (basePlayers == null || targetPlayers == null || basePlayers.size() != targetPlayers.size()) {
+            return null;
+        }
+
+        GameStateDelta delta = new GameStateDelta();
+        delta.setSessionCode(target.getSessionCode());
+        delta.setBaseVersion(base.getVersion());
+        delta.setVersion(target.getVersion());
+        delta.setMessage(target.getMessage());
+
+        for (int i = 0; i < targetPlayers.size(); i++) {
+            if (!targetPlayers.get(i).equals(basePlayers.get(i))) {
+                if (delta.players == null) {
+                    delta.players = new LinkedHashMap<>();
+                }
+                delta.players.put(i, targetPlayers.get(i));
+            }
+        }
+        if (!Objects.equals(base.getCurrentPlayerIndex(), target.getCurrentPlayerIndex())) {
+            delta.setCurrentPlayerIndex(target.getCurrentPlayerIndex());
+        }
+        if (!Objects.equals(base.getDartsThrown(), target.getDartsThrown())) {
+            delta.setDartsThrown(target.getDartsThrown());
+        }
+        if (!Objects.equals(base.getStatus(), target.getStatus())) {
+            delta.setStatus(target.getStatus());
+        }
+        if (!Objects.equals(base.getCheckout(), target.getCheckout())) {
+            // Empty rather than null when the route goes away, so that it is not omitted
+            delta.setCheckout(target.getCheckout());
+        }
+        if (!Objects.equals(base.getWinnerName(), target.getWinnerName())) {
+            // A cleared winner is implied by a status other than FINISHED or LEG_FINISHED
+            delta.setWinnerName(target.getWinnerName());
+        }
+        if (!Objects.equals(base.getSetNumber(), target.getSetNumber())) {
+            delta.setSetNumber(target.getSetNumber());
+        }
+        if (!Objects.equals(base.getLegNumber(), target.getLegNumber())) {
+            delta.setLegNumber(target.getLegNumber());
+        }
+        return delta;
+    }
+}
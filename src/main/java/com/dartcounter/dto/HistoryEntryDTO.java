@@ -0,0 +1,32 @@
+package com.dartcounter.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One exported event of a session's log. The dart and player fields are only
+ * set for throws; the scores are the thrower's before and after the dart.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryEntryDTO {
+
+    private String sessionCode;
+    private Integer seq;
+    private String type;
+    private LocalDateTime createdAt;
+    private Long version;
+    private Integer playerIndex;
+    private String player;
+    private Integer segment;
+    private Integer multiplier;
+    private Integer points;
+    private Integer scoreBefore;
+    private Integer scoreAfter;
+}
@@ -0,0 +1,61 @@
+package com.dartcounter.dto;
+
+import com.dartcounter.entity.GameSession;
+import com.dartcounter.entity.LegSummary;
+import com.dartcounter.entity.Player;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LegSummaryDTO {
+
+    private Integer setNumber;
+    private Integer legNumber;
+    private String starter;
+    private String winner;
+    // In playing order
+    private List<PlayerLeg> players;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PlayerLeg {
+
+        private String name;
+        private Integer dartsThrown;
+        private Integer pointsScored;
+        // Three-dart average, null without darts
+        private Double average;
+    }
+
+    public static List<LegSummaryDTO> listFrom(GameSession session) {
+        List<Player> players = session.getPlayers();
+        return LegSummary.unpack(session.getMatch().getLegSummaries(), players.size()).stream()
+            .map(leg -> from(leg, players))
+            .toList();
+    }
+
+    private static LegSummaryDTO from(LegSummary leg, List<Player> players) {
+        List<PlayerLeg> playerLegs = new ArrayList<>(players.size());
+        for (int i = 0; i < players.size(); i++) {
+            int darts = leg.darts()[i];
+            Double average = darts == 0 ? null : Math.round(leg.points()[i] * 300.0 / darts) / 100.0;
+            playerLegs.add(new PlayerLeg(players.get(i).getName(), darts, leg.points()[i], average));
+        }
+        return LegSummaryDTO.builder()
+            .setNumber(leg.setNumber())
+            .legNumber(leg.legNumber())
+            .starter(players.get(leg.starter()).getName())
+            .winner(players.get(leg.winner()).getName())
+            .players(playerLegs)
+            .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.dartcounter.dto;
 
 import com.dartcounter.entity.Player;
+import com.dartcounter.entity.PlayerStats;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,13 +15,29 @@ public class PlayerDTO {
     private Integer score;
     private Integer currentThrow;
     private Integer playerOrder;
+    // Leg statistics; averages and percentage are null until there is something to divide by
+    private Double average;
+    private Double first9Average;
+    private Double checkoutPercentage;
+    private Integer oneEighties;
+    private Integer highestVisit;
+    private Integer legsWon;
+    private Integer setsWon;
 
     public static PlayerDTO from(Player player) {
+        PlayerStats stats = player.getStats();
         return new PlayerDTO(
             player.getName(),
             player.getScore(),
             player.getCurrentThrow(),
-            player.getPlayerOrder()
+            player.getPlayerOrder(),
+            stats.average(),
+            stats.first9Average(),
+            stats.checkoutPercentage(),
+            stats.getOneEighties(),
+            stats.getHighestVisit(),
+            player.getLegsWon(),
+            player.getSetsWon()
         );
     }
 }
@@ -0,0 +1,44 @@
+package com.dartcounter.dto;
+
+import com.dartcounter.entity.Player;
+import com.dartcounter.entity.PlayerStats;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerStatsDTO {
+
+    private String name;
+    private Integer playerOrder;
+    private Integer dartsThrown;
+    private Integer pointsScored;
+    private Double average;
+    private Double first9Average;
+    private Integer checkoutAttempts;
+    private Integer checkouts;
+    private Double checkoutPercentage;
+    private Integer oneEighties;
+    private Integer highestVisit;
+
+    public static PlayerStatsDTO from(Player player) {
+        PlayerStats stats = player.getStats();
+        return PlayerStatsDTO.builder()
+            .name(player.getName())
+            .playerOrder(player.getPlayerOrder())
+            .dartsThrown(stats.getDartsThrown())
+            .pointsScored(stats.getPointsScored())
+            .average(stats.average())
+            .first9Average(stats.first9Average())
+            .checkoutAttempts(stats.getCheckoutAttempts())
+            .checkouts(stats.getCheckouts())
+            .checkoutPercentage(stats.checkoutPercentage())
+            .oneEighties(stats.getOneEighties())
+            .highestVisit(stats.getHighestVisit())
+            .build();
+    }
+}
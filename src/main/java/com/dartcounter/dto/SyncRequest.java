@@ -0,0 +1,10 @@
+package com.dartcounter.dto;
+
+import lombok.Data;
+
+@Data
+public class SyncRequest {
+
+    // Version the client currently has; null requests a full snapshot
+    private Long fromVersion;
+}
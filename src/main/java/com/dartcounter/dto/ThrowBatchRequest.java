@@ -0,0 +1,22 @@
+package com.dartcounter.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Up to a full visit of darts, applied as one command. The batch-level
+ * {@code expectedVersion} applies; versions on the individual darts are ignored.
+ */
+@Data
+public class ThrowBatchRequest {
+
+    @NotEmpty(message = "At least one dart is required")
+    @Size(max = 3, message = "A visit has at most 3 darts")
+    private List<@Valid ThrowRequest> darts;
+
+    private Long expectedVersion;
+}
@@ -8,10 +8,16 @@ import lombok.Data;
 @Data
 public class ThrowRequest {
 
-    @NotNull(message = "Points are required")
-    @Min(value = 0, message = "Points cannot be negative")
-    @Max(value = 60, message = "Maximum points per dart is 60")
-    private Integer points;
+    // 0 for a miss, 1-20, or 25 for the bull
+    @NotNull(message = "Segment is required")
+    @Min(value = 0, message = "Segment cannot be negative")
+    @Max(value = 25, message = "Highest segment is 25 (bull)")
+    private Integer segment;
+
+    @NotNull(message = "Multiplier is required")
+    @Min(value = 1, message = "Multiplier must be 1, 2 or 3")
+    @Max(value = 3, message = "Multiplier must be 1, 2 or 3")
+    private Integer multiplier = 1;
 
     private Long expectedVersion;
 }
@@ -0,0 +1,38 @@
+package com.dartcounter.dto;
+
+import com.dartcounter.entity.Tournament;
+import com.dartcounter.entity.TournamentMatch;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentDTO {
+
+    private String code;
+    private String name;
+    private String status;
+    private Integer boards;
+    private Integer rounds;
+    private String winnerName;
+    // By round, then position
+    private List<TournamentMatchDTO> matches;
+
+    public static TournamentDTO from(Tournament tournament, List<TournamentMatch> matches) {
+        return TournamentDTO.builder()
+            .code(tournament.getCode())
+            .name(tournament.getName())
+            .status(tournament.getStatus().name())
+            .boards(tournament.getBoards())
+            .rounds(tournament.getRounds())
+            .winnerName(tournament.getWinnerName())
+            .matches(matches.stream().map(TournamentMatchDTO::from).toList())
+            .build();
+    }
+}
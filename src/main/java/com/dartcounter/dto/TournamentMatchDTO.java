@@ -0,0 +1,36 @@
+package com.dartcounter.dto;
+
+import com.dartcounter.entity.TournamentMatch;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentMatchDTO {
+
+    private Integer round;
+    private Integer position;
+    private String player1;
+    private String player2;
+    private String status;
+    private Integer board;
+    private String sessionCode;
+    private String winner;
+
+    public static TournamentMatchDTO from(TournamentMatch match) {
+        return TournamentMatchDTO.builder()
+            .round(match.getRound())
+            .position(match.getPosition())
+            .player1(match.getPlayer1())
+            .player2(match.getPlayer2())
+            .status(match.getStatus().name())
+            .board(match.getBoard())
+            .sessionCode(match.getSessionCode())
+            .winner(match.getWinner())
+            .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.dartcounter.entity;
+
+/**
+ * A dart packed into a single int as {@code segment << 2 | multiplier}.
+ * Segments are 0 (miss), 1-20 and 25 (bull); multipliers are 1-3, with the
+ * bull only single or double and a miss always single.
+ *
+ * Packed values are below {@link #LIMIT}, so they can index lookup tables
+ * and be stored in a smallint column.
+ */
+public final class Dart {
+
+    public static final int LIMIT = (25 << 2) + 4;
+    public static final int MISS = 1;
+
+    private static final int[] POINTS = new int[LIMIT];
+    private static final boolean[] VALID = new boolean[LIMIT];
+
+    static {
+        VALID[MISS] = true;
+        for (int segment = 1; segment <= 20; segment++) {
+            for (int multiplier = 1; multiplier <= 3; multiplier++) {
+                VALID[segment << 2 | multiplier] = true;
+                POINTS[segment << 2 | multiplier] = segment * multiplier;
+            }
+        }
+        for (int multiplier = 1; multiplier <= 2; multiplier++) {
+            VALID[25 << 2 | multiplier] = true;
+            POINTS[25 << 2 | multiplier] = 25 * multiplier;
+        }
+    }
+
+    private Dart() {
+    }
+
+    public static int pack(int segment, int multiplier) {
+        if (segment < 0 || segment > 25 || multiplier < 1 || multiplier > 3 || !VALID[segment << 2 | multiplier]) {
+            throw new IllegalStateException("Invalid dart: segment " + segment + ", multiplier " + multiplier);
+        }
+        return segment << 2 | multiplier;
+    }
+
+    public static int segment(int dart) {
+        return dart >>> 2;
+    }
+
+    public static int multiplier(int dart) {
+        return dart & 3;
+    }
+
+    public static int points(int dart) {
+        return POINTS[dart];
+    }
+
+    /**
+     * Whether a packed value denotes a real dart.
+     */
+    public static boolean isValid(int dart) {
+        return dart >= 0 && dart < LIMIT && VALID[dart];
+    }
+}
@@ -0,0 +1,56 @@
+package com.dartcounter.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a session's append-only event log. Replaying a session's events
+ * in {@code seq} order from its last snapshot yields its current state.
+ */
+@Entity
+@Table(name = "game_events",
+       uniqueConstraints = @UniqueConstraint(name = "uk_game_events_session_seq", columnNames = {"session_code", "seq"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class GameEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_events_seq")
+    @SequenceGenerator(name = "game_events_seq", sequenceName = "game_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "session_code", nullable = false, length = 6)
+    private String sessionCode;
+
+    // Position in the session's log, starting at 1
+    @Column(nullable = false)
+    private Integer seq;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false)
+    private GameEventType type;
+
+    // Packed segment and multiplier for THROW, see Dart
+    private Short dart;
+
+    // Session version after the command that produced this event
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public GameEvent(String sessionCode, int seq, GameEventType type, Short dart, long version) {
+        this.sessionCode = sessionCode;
+        this.seq = seq;
+        this.type = type;
+        this.dart = dart;
+        this.version = version;
+        this.createdAt = LocalDateTime.now();
+    }
+}
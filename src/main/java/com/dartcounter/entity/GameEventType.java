@@ -0,0 +1,14 @@
+package com.dartcounter.entity;
+
+/**
+ * Kinds of entries in the per-session event log. Stored by ordinal:
+ * only ever append new types.
+ */
+public enum GameEventType {
+    START,
+    THROW,      // Carries the packed dart
+    UNDO,
+    NEXT,
+    RESET,
+    NEXT_LEG    // Compacts the finished leg and starts the next one
+}
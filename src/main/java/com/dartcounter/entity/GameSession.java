@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -29,22 +32,48 @@ public class GameSession {
     @Column(nullable = false)
     private Integer dartsThrown = 0;
 
+    // Defaults let the columns be added to existing tables
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    @ColumnDefault("'DOUBLE'")
+    private OutMode outMode = OutMode.DOUBLE;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    @ColumnDefault("'STRAIGHT'")
+    private InMode inMode = InMode.STRAIGHT;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private GameStatus status = GameStatus.WAITING;
 
+    // Winner of the match, or of the leg while the status is LEG_FINISHED
     private String winnerName;
 
+    @Embedded
+    private MatchProgress match = new MatchProgress();
+
+    // Set for the match sessions of a tournament, which hand their result to its bracket
+    @Column(length = 6)
+    private String tournamentCode;
+
+    // Null until persisted, so that saving a new session inserts rather than merges
     @Version
-    private Long version = 0L;
+    private Long version;
 
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @OrderBy("playerOrder ASC")
     private List<Player> players = new ArrayList<>();
 
-    @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
-    @OrderBy("id DESC")
-    private List<ThrowHistory> throwHistory = new ArrayList<>();
+    // The row is a snapshot of the state after this many events of the session's log
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Integer snapshotSeq = 0;
+
+    // Undo stack as of the snapshot, 8 bytes per undoable throw
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(length = 8192)
+    private byte[] undoFrames;
 
     @Column(nullable = false)
     private LocalDateTime createdAt;
@@ -68,11 +97,6 @@ public class GameSession {
         player.setSession(this);
     }
 
-    public void addThrowHistory(ThrowHistory history) {
-        throwHistory.add(0, history); // Add to beginning for DESC order
-        history.setSession(this);
-    }
-
     public Player getCurrentPlayer() {
         if (players.isEmpty() || currentPlayerIndex >= players.size()) {
             return null;
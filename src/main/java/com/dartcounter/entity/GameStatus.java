@@ -3,5 +3,6 @@ package com.dartcounter.entity;
 public enum GameStatus {
     WAITING,    // Waiting for players to join
     ACTIVE,     // Game in progress
-    FINISHED    // Game completed
+    FINISHED,   // Game completed
+    LEG_FINISHED // Leg won, the match goes on with the next leg
 }
@@ -0,0 +1,9 @@
+package com.dartcounter.entity;
+
+/**
+ * Which darts may open a player's scoring.
+ */
+public enum InMode {
+    STRAIGHT,
+    DOUBLE
+}
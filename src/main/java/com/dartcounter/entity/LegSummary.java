@@ -0,0 +1,61 @@
+package com.dartcounter.entity;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A finished leg, compacted to who started and won it plus each player's
+ * darts and points. Packed as set (2 bytes), leg (2), starter (1), winner (1),
+ * then darts (2) and points (4) per player: a few dozen bytes per leg.
+ */
+public record LegSummary(int setNumber, int legNumber, int starter, int winner, int[] darts, int[] points) {
+
+    private static final int HEADER_SIZE = 6;
+    private static final int PLAYER_SIZE = 6;
+
+    public static int size(int playerCount) {
+        return HEADER_SIZE + PLAYER_SIZE * playerCount;
+    }
+
+    /**
+     * Returns the packed summaries with this one appended.
+     */
+    public byte[] appendTo(byte[] packed) {
+        int offset = packed != null ? packed.length : 0;
+        byte[] result = packed != null ? Arrays.copyOf(packed, offset + size(darts.length)) : new byte[size(darts.length)];
+        ByteBuffer buffer = ByteBuffer.wrap(result, offset, size(darts.length));
+        buffer.putShort((short) setNumber);
+        buffer.putShort((short) legNumber);
+        buffer.put((byte) starter);
+        buffer.put((byte) winner);
+        for (int i = 0; i < darts.length; i++) {
+            buffer.putShort((short) darts[i]);
+            buffer.putInt(points[i]);
+        }
+        return result;
+    }
+
+    public static List<LegSummary> unpack(byte[] packed, int playerCount) {
+        List<LegSummary> legs = new ArrayList<>();
+        if (packed == null) {
+            return legs;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        while (buffer.remaining() >= size(playerCount)) {
+            int setNumber = buffer.getShort();
+            int legNumber = buffer.getShort();
+            int starter = buffer.get();
+            int winner = buffer.get();
+            int[] darts = new int[playerCount];
+            int[] points = new int[playerCount];
+            for (int i = 0; i < playerCount; i++) {
+                darts[i] = Short.toUnsignedInt(buffer.getShort());
+                points[i] = buffer.getInt();
+            }
+            legs.add(new LegSummary(setNumber, legNumber, starter, winner, darts, points));
+        }
+        return legs;
+    }
+}
@@ -0,0 +1,55 @@
+package com.dartcounter.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * The match a session's legs belong to: first to {@code legsPerSet} legs wins
+ * a set, first to {@code setsToWin} sets wins the match. The defaults make a
+ * single-leg game. Only the current leg is held in full; finished legs are
+ * compacted into {@link LegSummary} records.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+public class MatchProgress {
+
+    // Defaults let the columns be added to existing tables
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int legsPerSet = 1;
+
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int setsToWin = 1;
+
+    // Both 1-based; legs are numbered across the whole match
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int setNumber = 1;
+
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int legNumber = 1;
+
+    // Index of the player who threw first in the current leg
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int legStarter;
+
+    // Finished legs, packed back to back as written by LegSummary
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(length = 65536)
+    private byte[] legSummaries;
+
+    public boolean isMultiLeg() {
+        return legsPerSet > 1 || setsToWin > 1;
+    }
+}
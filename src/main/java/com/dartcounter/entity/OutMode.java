@@ -0,0 +1,11 @@
+package com.dartcounter.entity;
+
+/**
+ * Which darts may finish a leg.
+ */
+public enum OutMode {
+    SINGLE,
+    DOUBLE,
+    TRIPLE,
+    MASTER      // Double or triple
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "players")
@@ -12,8 +13,10 @@ import lombok.Setter;
 @NoArgsConstructor
 public class Player {
 
+    // Pooled sequence rather than IDENTITY, so that inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "players_seq")
+    @SequenceGenerator(name = "players_seq", sequenceName = "players_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -28,6 +31,18 @@ public class Player {
     @Column(nullable = false)
     private Integer playerOrder;
 
+    @Embedded
+    private PlayerStats stats = new PlayerStats();
+
+    // Legs won in the current set, and sets won in the match
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int legsWon;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int setsWon;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "session_code", nullable = false)
     private GameSession session;
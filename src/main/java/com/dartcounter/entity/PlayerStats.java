@@ -0,0 +1,99 @@
+package com.dartcounter.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+/**
+ * Running totals of a player's leg, kept up to date dart by dart, from which
+ * averages and the checkout percentage are derived. Stored with the player
+ * row as part of the snapshot.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode
+public class PlayerStats {
+
+    // Defaults let the columns be added to existing tables
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int dartsThrown;
+
+    // Points of busted visits are not counted
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int pointsScored;
+
+    // Visits started, including the current one
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int visits;
+
+    // Darts and points of the first three visits
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int first9Darts;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int first9Points;
+
+    // Darts thrown at a score a single dart could finish
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int checkoutAttempts;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int checkouts;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int oneEighties;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int highestVisit;
+
+    public PlayerStats copy() {
+        PlayerStats copy = new PlayerStats();
+        copy.dartsThrown = dartsThrown;
+        copy.pointsScored = pointsScored;
+        copy.visits = visits;
+        copy.first9Darts = first9Darts;
+        copy.first9Points = first9Points;
+        copy.checkoutAttempts = checkoutAttempts;
+        copy.checkouts = checkouts;
+        copy.oneEighties = oneEighties;
+        copy.highestVisit = highestVisit;
+        return copy;
+    }
+
+    /**
+     * Three-dart average, or null before the first dart.
+     */
+    public Double average() {
+        return dartsThrown == 0 ? null : round2(pointsScored * 3.0 / dartsThrown);
+    }
+
+    public Double first9Average() {
+        return first9Darts == 0 ? null : round2(first9Points * 3.0 / first9Darts);
+    }
+
+    /**
+     * Checkouts per attempt in percent, or null without attempts.
+     */
+    public Double checkoutPercentage() {
+        return checkoutAttempts == 0 ? null : round2(checkouts * 100.0 / checkoutAttempts);
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
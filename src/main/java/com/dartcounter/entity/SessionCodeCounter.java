@@ -0,0 +1,33 @@
+package com.dartcounter.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Single-row table handing out blocks of the session code counter to nodes.
+ */
+@Entity
+@Table(name = "session_code_counter")
+@Getter
+@Setter
+@NoArgsConstructor
+public class SessionCodeCounter {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long nextBlock;
+
+    public SessionCodeCounter(Integer id, Long nextBlock) {
+        this.id = id;
+        this.nextBlock = nextBlock;
+    }
+}
@@ -0,0 +1,72 @@
+package com.dartcounter.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single-elimination bracket played on a fixed number of boards. The
+ * matches and boards are separate rows, so that results are recorded by
+ * updating only the rows a match touches.
+ */
+@Entity
+@Table(name = "tournaments")
+@Getter
+@Setter
+@NoArgsConstructor
+public class Tournament {
+
+    @Id
+    @Column(length = 6)
+    private String code;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    // Settings of every match session
+    @Column(nullable = false)
+    private Integer startingScore;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private OutMode outMode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private InMode inMode;
+
+    @Column(nullable = false)
+    private int legsPerSet;
+
+    @Column(nullable = false)
+    private int setsToWin;
+
+    // Boards that can be played on at the same time
+    @Column(nullable = false)
+    private int boards;
+
+    // The final is in round rounds - 1
+    @Column(nullable = false)
+    private int rounds;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TournamentStatus status = TournamentStatus.ACTIVE;
+
+    private String winnerName;
+
+    // Null until persisted, so that saving a new tournament inserts rather than merges
+    @Version
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,38 @@
+package com.dartcounter.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A board of a tournament and the match currently played on it. Matches claim
+ * a board by setting the match id only where it is still null.
+ */
+@Entity
+@Table(name = "tournament_boards",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"tournament_code", "board_number"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class TournamentBoard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tournament_boards_seq")
+    @SequenceGenerator(name = "tournament_boards_seq", sequenceName = "tournament_boards_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "tournament_code", nullable = false, length = 6)
+    private String tournamentCode;
+
+    @Column(name = "board_number", nullable = false)
+    private int number;
+
+    // Null while the board is free
+    private Long matchId;
+
+    public TournamentBoard(String tournamentCode, int number) {
+        this.tournamentCode = tournamentCode;
+        this.number = number;
+    }
+}
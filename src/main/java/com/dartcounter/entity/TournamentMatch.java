@@ -0,0 +1,65 @@
+package com.dartcounter.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One match of a tournament bracket. The winner of the match at position p
+ * of round r plays in position p / 2 of round r + 1, as player 1 if p is
+ * even and player 2 otherwise.
+ */
+@Entity
+@Table(name = "tournament_matches",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"tournament_code", "round_number", "round_position"}),
+    indexes = @Index(columnList = "session_code"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class TournamentMatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tournament_matches_seq")
+    @SequenceGenerator(name = "tournament_matches_seq", sequenceName = "tournament_matches_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "tournament_code", nullable = false, length = 6)
+    private String tournamentCode;
+
+    // Both 0-based
+    @Column(name = "round_number", nullable = false)
+    private int round;
+
+    @Column(name = "round_position", nullable = false)
+    private int position;
+
+    private String player1;
+
+    // Null for a bye
+    private String player2;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TournamentMatchStatus status = TournamentMatchStatus.PENDING;
+
+    // 1-based, while and after the match is played
+    private Integer board;
+
+    @Column(name = "session_code", length = 6)
+    private String sessionCode;
+
+    // When the board was claimed; identifies the claim until the session is assigned
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    private String winner;
+
+    public TournamentMatch(String tournamentCode, int round, int position) {
+        this.tournamentCode = tournamentCode;
+        this.round = round;
+        this.position = position;
+    }
+}
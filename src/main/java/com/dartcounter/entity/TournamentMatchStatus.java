@@ -0,0 +1,8 @@
+package com.dartcounter.entity;
+
+public enum TournamentMatchStatus {
+    PENDING,    // Waiting for the winners of earlier matches
+    READY,      // Both players known, waiting for a free board
+    PLAYING,    // Assigned a board and a session
+    FINISHED    // Won, or a bye
+}
@@ -0,0 +1,6 @@
+package com.dartcounter.entity;
+
+public enum TournamentStatus {
+    ACTIVE,     // Matches are being played
+    FINISHED    // The final has been won
+}
@@ -0,0 +1,497 @@
+package com.dartcounter.repository;
+
+import com.dartcounter.entity.GameEvent;
+import com.dartcounter.entity.GameEventType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Keeps event logs in a memory-mapped, append-only file, for single-node
+ * deployments without a database server.
+ *
+ * Every record is framed as length, CRC32C and payload. An append copies its
+ * records into the mapping under a short lock and then waits for the sync
+ * thread, which forces everything written so far at once: appends arriving
+ * while a force runs share the next one (group commit).
+ *
+ * On startup the file is scanned up to the first torn or corrupt record to
+ * rebuild the per-session index of record offsets. When the file is full,
+ * the records of deleted sessions are compacted away.
+ */
+@Repository
+@ConditionalOnProperty(name = "dartcounter.event-store", havingValue = "journal")
+@Slf4j
+public class GameEventJournal implements GameEventStore {
+
+    private static final int MAGIC = 0x44434A31; // "DCJ1"
+    private static final int HEADER_SIZE = 8;
+    private static final int FRAME_SIZE = 8; // payload length, CRC32C of the payload
+
+    private static final byte EVENT = 1;
+    private static final byte DELETE = 2;
+    private static final int CODE_LENGTH = 6;
+    // kind, session code, seq, type, dart, version, created at
+    private static final int EVENT_SIZE = 1 + CODE_LENGTH + 4 + 1 + 2 + 8 + 8;
+    private static final int DELETE_SIZE = 1 + CODE_LENGTH;
+    private static final short NO_DART = -1;
+    private static final GameEventType[] TYPES = GameEventType.values();
+    // Wait between retries of a failing force, doubled per failure up to the maximum
+    private static final long MIN_SYNC_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_SYNC_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path path;
+    private final int capacity;
+    private final Thread syncThread;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition syncRequested = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+
+    // All guarded by lock
+    private final Map<String, SessionRecords> index = new HashMap<>();
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private int syncedPosition;
+    // Bumped by compaction, which invalidates a force still running on the old file
+    private int generation;
+    private UncheckedIOException syncFailure;
+    private boolean closed;
+
+    public GameEventJournal(@Value("${dartcounter.journal.path}") String path,
+                            @Value("${dartcounter.journal.size-mb:64}") int sizeMb) {
+        this.path = Path.of(path).toAbsolutePath();
+        // Positions in the mapping are ints, so a journal holds at most 2 GB
+        if (sizeMb <= 0 || (long) sizeMb << 20 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("dartcounter.journal.size-mb must be between 1 and 2047: " + sizeMb);
+        }
+        try {
+            Files.createDirectories(this.path.getParent());
+            // The mapping stays valid after its channel is closed
+            try (FileChannel channel = FileChannel.open(this.path, CREATE, READ, WRITE)) {
+                long size = Math.max((long) sizeMb << 20, channel.size());
+                if (size > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Event journal is larger than 2 GB: " + this.path);
+                }
+                this.capacity = (int) size;
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open event journal " + this.path, e);
+        }
+        recover();
+
+        this.syncThread = Thread.ofPlatform().daemon().name("event-journal-sync").start(this::syncLoop);
+    }
+
+    @Override
+    public boolean isWriteThrough() {
+        return true;
+    }
+
+    @Override
+    public void append(List<GameEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            checkOpen();
+            for (GameEvent event : events) {
+                SessionRecords records = index.computeIfAbsent(event.getSessionCode(), code -> new SessionRecords());
+                if (event.getSeq() <= records.lastSeq) {
+                    // Already journaled by an earlier flush whose snapshot failed
+                    continue;
+                }
+                int position = reserve(EVENT_SIZE);
+                int payload = position + FRAME_SIZE;
+                buffer.put(payload, EVENT);
+                putCode(payload + 1, event.getSessionCode());
+                payload += 1 + CODE_LENGTH;
+                buffer.putInt(payload, event.getSeq());
+                buffer.put(payload + 4, (byte) event.getType().ordinal());
+                buffer.putShort(payload + 5, event.getDart() != null ? event.getDart() : NO_DART);
+                buffer.putLong(payload + 7, event.getVersion());
+                buffer.putLong(payload + 15, event.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+                seal(position, EVENT_SIZE);
+                records.add(position, event.getSeq());
+            }
+            awaitSynced();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<GameEvent> findAfter(String sessionCode, int seq) {
+        lock.lock();
+        try {
+            SessionRecords records = index.get(sessionCode);
+            if (records == null) {
+                return List.of();
+            }
+            List<GameEvent> events = new ArrayList<>();
+            for (int i = 0; i < records.size; i++) {
+                GameEvent event = readEvent(records.offsets[i]);
+                if (event.getSeq() > seq) {
+                    events.add(event);
+                }
+            }
+            return events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<GameEvent> findAfter(String sessionCode, int seq, int limit) {
+        lock.lock();
+        try {
+            SessionRecords records = index.get(sessionCode);
+            if (records == null) {
+                return List.of();
+            }
+            // Records are indexed in seq order
+            int low = 0;
+            int high = records.size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (seqAt(records.offsets[mid]) <= seq) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            List<GameEvent> events = new ArrayList<>(Math.min(limit, records.size - low));
+            for (int i = low; i < records.size && events.size() < limit; i++) {
+                events.add(readEvent(records.offsets[i]));
+            }
+            return events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int deleteSession(String sessionCode) {
+        return deleteSessions(List.of(sessionCode));
+    }
+
+    @Override
+    public int deleteSessions(List<String> sessionCodes) {
+        lock.lock();
+        try {
+            checkOpen();
+            int deleted = 0;
+            for (String code : sessionCodes) {
+                SessionRecords records = index.remove(code);
+                if (records == null) {
+                    continue;
+                }
+                int position = reserve(DELETE_SIZE);
+                buffer.put(position + FRAME_SIZE, DELETE);
+                putCode(position + FRAME_SIZE + 1, code);
+                seal(position, DELETE_SIZE);
+                deleted += records.size;
+            }
+            awaitSynced();
+            return deleted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Codes of all sessions with events in the journal.
+     */
+    public List<String> sessionCodes() {
+        lock.lock();
+        try {
+            return new ArrayList<>(index.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            syncRequested.signalAll();
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        syncThread.join();
+        buffer.force();
+        log.info("Closed event journal {} at offset {}", path, writePosition);
+    }
+
+    private void recover() {
+        if (buffer.getInt(0) == 0) {
+            buffer.putInt(0, MAGIC);
+        } else if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not an event journal: " + path);
+        }
+
+        int position = HEADER_SIZE;
+        int records = 0;
+        while (position + FRAME_SIZE <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > capacity - position - FRAME_SIZE
+                || buffer.getInt(position + 4) != checksum(position + FRAME_SIZE, length)) {
+                break;
+            }
+            indexRecord(position);
+            position += FRAME_SIZE + length;
+            records++;
+        }
+
+        // A crash mid-append leaves a torn record; clear it so new records are not mistaken for it
+        if (position + FRAME_SIZE <= capacity && buffer.getInt(position) != 0) {
+            log.warn("Discarding torn tail of event journal {} at offset {}", path, position);
+            buffer.put(position, new byte[capacity - position]);
+        }
+
+        writePosition = position;
+        syncedPosition = position;
+        log.info("Recovered {} records for {} sessions from event journal {}", records, index.size(), path);
+    }
+
+    private void indexRecord(int position) {
+        int payload = position + FRAME_SIZE;
+        String code = getCode(payload + 1);
+        if (buffer.get(payload) == DELETE) {
+            index.remove(code);
+        } else {
+            int seq = buffer.getInt(payload + 1 + CODE_LENGTH);
+            index.computeIfAbsent(code, c -> new SessionRecords()).add(position, seq);
+        }
+    }
+
+    private int seqAt(int position) {
+        return buffer.getInt(position + FRAME_SIZE + 1 + CODE_LENGTH);
+    }
+
+    private GameEvent readEvent(int position) {
+        int payload = position + FRAME_SIZE + 1;
+        String code = getCode(payload);
+        payload += CODE_LENGTH;
+        short dart = buffer.getShort(payload + 5);
+        GameEvent event = new GameEvent(code, buffer.getInt(payload), TYPES[buffer.get(payload + 4)],
+            dart != NO_DART ? dart : null, buffer.getLong(payload + 7));
+        event.setCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong(payload + 15)), ZoneOffset.UTC));
+        return event;
+    }
+
+    /**
+     * Returns the offset for a record with a payload of the given size, compacting first if the file is full.
+     */
+    private int reserve(int payloadSize) {
+        int size = FRAME_SIZE + payloadSize;
+        if (writePosition + size > capacity) {
+            compact();
+            if (writePosition + size > capacity) {
+                throw new IllegalStateException("Event journal is full: " + path);
+            }
+        }
+        int position = writePosition;
+        writePosition += size;
+        return position;
+    }
+
+    // The length goes in last, so a record is only valid once it is complete
+    private void seal(int position, int payloadSize) {
+        buffer.putInt(position + 4, checksum(position + FRAME_SIZE, payloadSize));
+        buffer.putInt(position, payloadSize);
+    }
+
+    private void awaitSynced() {
+        int target = writePosition;
+        int targetGeneration = generation;
+        syncRequested.signal();
+        while (!closed && generation == targetGeneration && syncedPosition < target) {
+            synced.awaitUninterruptibly();
+            if (syncFailure != null && generation == targetGeneration && syncedPosition < target) {
+                throw syncFailure;
+            }
+        }
+    }
+
+    private void syncLoop() {
+        int failures = 0;
+        lock.lock();
+        try {
+            while (!closed) {
+                if (syncedPosition >= writePosition) {
+                    syncRequested.awaitUninterruptibly();
+                    continue;
+                }
+                int from = syncedPosition;
+                int to = writePosition;
+                int forcedGeneration = generation;
+                MappedByteBuffer forced = buffer;
+
+                // Appends continue into the mapping while it is forced
+                lock.unlock();
+                UncheckedIOException failure = null;
+                try {
+                    forced.force(from, to - from);
+                } catch (UncheckedIOException e) {
+                    failure = e;
+                } finally {
+                    lock.lock();
+                }
+
+                syncFailure = failure;
+                if (failure == null) {
+                    if (failures > 0) {
+                        log.info("Event journal {} synced again after {} failed attempts", path, failures);
+                        failures = 0;
+                    }
+                    if (forcedGeneration == generation) {
+                        syncedPosition = to;
+                    }
+                } else if (failures++ == 0) {
+                    log.error("Failed to sync event journal {}: {}", path, failure.getMessage(), failure);
+                } else {
+                    log.debug("Failed to sync event journal {} again: {}", path, failure.getMessage());
+                }
+                synced.signalAll();
+
+                if (failure != null) {
+                    backOff(failures);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Appends keep signalling while the disk fails, so wait out the full delay unless closed
+    private void backOff(int failures) {
+        long delay = Math.min(MIN_SYNC_RETRY_NANOS << Math.min(failures - 1, 20), MAX_SYNC_RETRY_NANOS);
+        long deadline = System.nanoTime() + delay;
+        while (!closed && delay > 0) {
+            try {
+                syncRequested.awaitNanos(delay);
+            } catch (InterruptedException e) {
+                // Only closing the journal stops the sync thread
+            }
+            delay = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * Rewrites the journal without the records of deleted sessions and swaps it in.
+     */
+    private void compact() {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        MappedByteBuffer next;
+        try (FileChannel channel = FileChannel.open(compacted, CREATE, TRUNCATE_EXISTING, READ, WRITE)) {
+            next = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact event journal " + path, e);
+        }
+
+        next.putInt(0, MAGIC);
+        int position = HEADER_SIZE;
+        for (SessionRecords records : index.values()) {
+            for (int i = 0; i < records.size; i++) {
+                int from = records.offsets[i];
+                int length = FRAME_SIZE + buffer.getInt(from);
+                next.put(position, buffer, from, length);
+                records.offsets[i] = position;
+                position += length;
+            }
+        }
+        next.force();
+
+        try {
+            Files.move(compacted, path, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact event journal " + path, e);
+        }
+
+        log.info("Compacted event journal {} from {} to {} bytes", path, writePosition, position);
+        buffer = next;
+        writePosition = position;
+        syncedPosition = position;
+        generation++;
+        synced.signalAll();
+    }
+
+    private int checksum(int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private void putCode(int offset, String code) {
+        byte[] bytes = code.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length != CODE_LENGTH) {
+            throw new IllegalArgumentException("Invalid session code: " + code);
+        }
+        buffer.put(offset, bytes);
+    }
+
+    private String getCode(int offset) {
+        byte[] bytes = new byte[CODE_LENGTH];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Event journal is closed");
+        }
+    }
+
+    /**
+     * Offsets of one session's event records, in seq order.
+     */
+    private static final class SessionRecords {
+
+        int[] offsets = new int[16];
+        int size;
+        int lastSeq;
+
+        void add(int offset, int seq) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+            lastSeq = seq;
+        }
+    }
+}
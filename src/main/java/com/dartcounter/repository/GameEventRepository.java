@@ -0,0 +1,31 @@
+package com.dartcounter.repository;
+
+import com.dartcounter.entity.GameEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GameEventRepository extends JpaRepository<GameEvent, Long> {
+
+    /**
+     * The events recorded after a snapshot, in replay order.
+     */
+    List<GameEvent> findBySessionCodeAndSeqGreaterThanOrderBySeq(String sessionCode, Integer seq);
+
+    // Keyset page over the (session_code, seq) unique index; the page offset is always 0
+    List<GameEvent> findBySessionCodeAndSeqGreaterThanOrderBySeq(String sessionCode, Integer seq, Pageable pageable);
+
+    @Modifying
+    @Query("delete from GameEvent e where e.sessionCode = :sessionCode")
+    int deleteAllForSession(@Param("sessionCode") String sessionCode);
+
+    @Modifying
+    @Query("delete from GameEvent e where e.sessionCode in :sessionCodes")
+    int deleteAllForSessions(@Param("sessionCodes") List<String> sessionCodes);
+}
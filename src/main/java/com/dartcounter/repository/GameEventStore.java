@@ -0,0 +1,42 @@
+package com.dartcounter.repository;
+
+import com.dartcounter.entity.GameEvent;
+
+import java.util.List;
+
+/**
+ * Where the event logs of game sessions are kept. Selected with
+ * dartcounter.event-store: the game_events table (default) or a local journal file.
+ */
+public interface GameEventStore {
+
+    /**
+     * Appends events in log order. Events already stored under the same
+     * session and seq are rejected or skipped, never stored twice.
+     */
+    void append(List<GameEvent> events);
+
+    /**
+     * The events recorded after a snapshot, in replay order.
+     */
+    List<GameEvent> findAfter(String sessionCode, int seq);
+
+    /**
+     * At most {@code limit} events after {@code seq}, in replay order. Reading a
+     * long log page by page, each page starting after the last seq of the
+     * previous one, keeps memory bounded.
+     */
+    List<GameEvent> findAfter(String sessionCode, int seq, int limit);
+
+    int deleteSession(String sessionCode);
+
+    int deleteSessions(List<String> sessionCodes);
+
+    /**
+     * True if appends are cheap and durable once they return, so events can be
+     * written as each command completes instead of by the scheduled flush.
+     */
+    default boolean isWriteThrough() {
+        return false;
+    }
+}
@@ -2,7 +2,12 @@ package com.dartcounter.repository;
 
 import com.dartcounter.entity.GameSession;
 import com.dartcounter.entity.GameStatus;
+import com.dartcounter.entity.MatchProgress;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -19,4 +24,59 @@ public interface GameSessionRepository extends JpaRepository<GameSession, String
     List<GameSession> findByUpdatedAtBefore(LocalDateTime dateTime);
 
     boolean existsBySessionCode(String sessionCode);
+
+    // Keyset page by session code, so that skipped codes are not returned again
+    @Query("""
+        select s.sessionCode from GameSession s
+        where s.updatedAt < :cutoff and s.sessionCode > :after
+        order by s.sessionCode
+        """)
+    List<String> findExpiredSessionCodes(@Param("cutoff") LocalDateTime cutoff,
+                                         @Param("after") String after,
+                                         Pageable pageable);
+
+    // Keyset page by session code; the page offset is always 0
+    @Query("""
+        select s.sessionCode from GameSession s
+        where s.createdAt >= :from and s.createdAt < :to and s.sessionCode > :after
+        order by s.sessionCode
+        """)
+    List<String> findSessionCodesCreatedBetween(@Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                @Param("after") String after,
+                                                Pageable pageable);
+
+    @Modifying
+    @Query("delete from GameSession s where s.sessionCode in :sessionCodes")
+    int deleteAllBySessionCodes(@Param("sessionCodes") List<String> sessionCodes);
+
+    // Keeps the expiry sweeper away from sessions still being played between snapshots
+    @Modifying
+    @Query("update GameSession s set s.updatedAt = :updatedAt where s.sessionCode = :sessionCode")
+    int touch(@Param("sessionCode") String sessionCode, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("""
+        update GameSession s
+        set s.currentPlayerIndex = :currentPlayerIndex,
+            s.dartsThrown = :dartsThrown,
+            s.status = :status,
+            s.winnerName = :winnerName,
+            s.version = :version,
+            s.updatedAt = :updatedAt,
+            s.snapshotSeq = :snapshotSeq,
+            s.undoFrames = :undoFrames,
+            s.match = :match
+        where s.sessionCode = :sessionCode
+        """)
+    int updateState(@Param("sessionCode") String sessionCode,
+                    @Param("currentPlayerIndex") Integer currentPlayerIndex,
+                    @Param("dartsThrown") Integer dartsThrown,
+                    @Param("status") GameStatus status,
+                    @Param("winnerName") String winnerName,
+                    @Param("version") Long version,
+                    @Param("updatedAt") LocalDateTime updatedAt,
+                    @Param("snapshotSeq") Integer snapshotSeq,
+                    @Param("undoFrames") byte[] undoFrames,
+                    @Param("match") MatchProgress match);
 }
@@ -0,0 +1,45 @@
+package com.dartcounter.repository;
+
+import com.dartcounter.entity.GameEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Keeps event logs in the game_events table, inside the caller's transaction.
+ */
+@Repository
+@ConditionalOnProperty(name = "dartcounter.event-store", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaGameEventStore implements GameEventStore {
+
+    private final GameEventRepository eventRepository;
+
+    @Override
+    public void append(List<GameEvent> events) {
+        eventRepository.saveAll(events);
+    }
+
+    @Override
+    public List<GameEvent> findAfter(String sessionCode, int seq) {
+        return eventRepository.findBySessionCodeAndSeqGreaterThanOrderBySeq(sessionCode, seq);
+    }
+
+    @Override
+    public List<GameEvent> findAfter(String sessionCode, int seq, int limit) {
+        return eventRepository.findBySessionCodeAndSeqGreaterThanOrderBySeq(sessionCode, seq, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int deleteSession(String sessionCode) {
+        return eventRepository.deleteAllForSession(sessionCode);
+    }
+
+    @Override
+    public int deleteSessions(List<String> sessionCodes) {
+        return eventRepository.deleteAllForSessions(sessionCodes);
+    }
+}
@@ -1,7 +1,11 @@
 package com.dartcounter.repository;
 
 import com.dartcounter.entity.Player;
+import com.dartcounter.entity.PlayerStats;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +14,25 @@ import java.util.List;
 public interface PlayerRepository extends JpaRepository<Player, Long> {
 
     List<Player> findBySessionSessionCodeOrderByPlayerOrder(String sessionCode);
+
+    @Modifying
+    @Query("""
+        update Player p
+        set p.score = :score,
+            p.currentThrow = :currentThrow,
+            p.stats = :stats,
+            p.legsWon = :legsWon,
+            p.setsWon = :setsWon
+        where p.id = :id
+        """)
+    int updateState(@Param("id") Long id,
+                    @Param("score") Integer score,
+                    @Param("currentThrow") Integer currentThrow,
+                    @Param("stats") PlayerStats stats,
+                    @Param("legsWon") int legsWon,
+                    @Param("setsWon") int setsWon);
+
+    @Modifying
+    @Query("delete from Player p where p.session.sessionCode in :sessionCodes")
+    int deleteAllForSessions(@Param("sessionCodes") List<String> sessionCodes);
 }
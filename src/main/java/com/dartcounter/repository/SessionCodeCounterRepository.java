@@ -0,0 +1,16 @@
+package com.dartcounter.repository;
+
+import com.dartcounter.entity.SessionCodeCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SessionCodeCounterRepository extends JpaRepository<SessionCodeCounter, Integer> {
+
+    @Modifying
+    @Query("update SessionCodeCounter c set c.nextBlock = c.nextBlock + 1 where c.id = :id")
+    int incrementNextBlock(@Param("id") Integer id);
+}
@@ -0,0 +1,40 @@
+package com.dartcounter.repository;
+
+import com.dartcounter.entity.TournamentBoard;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TournamentBoardRepository extends JpaRepository<TournamentBoard, Long> {
+
+    List<TournamentBoard> findByTournamentCodeAndMatchIdIsNotNull(String tournamentCode);
+
+    @Query("""
+        select b.number from TournamentBoard b
+        where b.tournamentCode = :tournamentCode and b.matchId is null
+        order by b.number
+        """)
+    List<Integer> findFreeBoards(@Param("tournamentCode") String tournamentCode, Pageable pageable);
+
+    @Modifying
+    @Query("""
+        update TournamentBoard b set b.matchId = :matchId
+        where b.tournamentCode = :tournamentCode and b.number = :number and b.matchId is null
+        """)
+    int claim(@Param("tournamentCode") String tournamentCode, @Param("number") int number,
+              @Param("matchId") Long matchId);
+
+    @Modifying
+    @Query("""
+        update TournamentBoard b set b.matchId = null
+        where b.tournamentCode = :tournamentCode and b.number = :number and b.matchId = :matchId
+        """)
+    int release(@Param("tournamentCode") String tournamentCode, @Param("number") int number,
+                @Param("matchId") Long matchId);
+}
@@ -0,0 +1,94 @@
+package com.dartcounter.repository;
+
+import com.dartcounter.entity.TournamentMatch;
+import com.dartcounter.entity.TournamentMatchStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The updates that move a match through the bracket only apply if the row is
+ * still in the expected state, and return the number of rows changed. Of two
+ * concurrent callers exactly one sees 1, without any lock beyond the row's own.
+ */
+@Repository
+public interface TournamentMatchRepository extends JpaRepository<TournamentMatch, Long> {
+
+    List<TournamentMatch> findByTournamentCodeOrderByRoundAscPositionAsc(String tournamentCode);
+
+    Optional<TournamentMatch> findByTournamentCodeAndSessionCode(String tournamentCode, String sessionCode);
+
+    Optional<TournamentMatch> findByTournamentCodeAndRoundAndPosition(String tournamentCode, int round, int position);
+
+    List<TournamentMatch> findByTournamentCodeAndStatus(String tournamentCode, TournamentMatchStatus status);
+
+    // Earlier rounds first, so that the bracket fills evenly
+    List<TournamentMatch> findByTournamentCodeAndStatusOrderByRoundAscPositionAsc(String tournamentCode,
+                                                                                TournamentMatchStatus status,
+                                                                                Pageable pageable);
+
+    @Modifying
+    @Query("""
+        update TournamentMatch m
+        set m.status = com.dartcounter.entity.TournamentMatchStatus.FINISHED,
+            m.winner = :winner
+        where m.id = :id and m.status = com.dartcounter.entity.TournamentMatchStatus.PLAYING
+        """)
+    int recordWinner(@Param("id") Long id, @Param("winner") String winner);
+
+    @Modifying
+    @Query("update TournamentMatch m set m.player1 = :player where m.id = :id and m.player1 is null")
+    int fillPlayer1(@Param("id") Long id, @Param("player") String player);
+
+    @Modifying
+    @Query("update TournamentMatch m set m.player2 = :player where m.id = :id and m.player2 is null")
+    int fillPlayer2(@Param("id") Long id, @Param("player") String player);
+
+    @Modifying
+    @Query("""
+        update TournamentMatch m
+        set m.status = com.dartcounter.entity.TournamentMatchStatus.READY
+        where m.id = :id and m.status = com.dartcounter.entity.TournamentMatchStatus.PENDING
+          and m.player1 is not null and m.player2 is not null
+        """)
+    int markReady(@Param("id") Long id);
+
+    @Modifying
+    @Query("""
+        update TournamentMatch m
+        set m.status = com.dartcounter.entity.TournamentMatchStatus.PLAYING,
+            m.board = :board,
+            m.claimedAt = :claimedAt
+        where m.id = :id and m.status = com.dartcounter.entity.TournamentMatchStatus.READY
+        """)
+    int claim(@Param("id") Long id, @Param("board") int board, @Param("claimedAt") LocalDateTime claimedAt);
+
+    // Only for the claim that is starting the match, so it fails once the claim is taken back
+    @Modifying
+    @Query("""
+        update TournamentMatch m set m.sessionCode = :sessionCode
+        where m.id = :id and m.status = com.dartcounter.entity.TournamentMatchStatus.PLAYING
+          and m.sessionCode is null and m.claimedAt = :claimedAt
+        """)
+    int assignSession(@Param("id") Long id, @Param("sessionCode") String sessionCode,
+                      @Param("claimedAt") LocalDateTime claimedAt);
+
+    // Takes back a claim whose match never got a session, so the match can be started again
+    @Modifying
+    @Query("""
+        update TournamentMatch m
+        set m.status = com.dartcounter.entity.TournamentMatchStatus.READY,
+            m.board = null,
+            m.claimedAt = null
+        where m.id = :id and m.status = com.dartcounter.entity.TournamentMatchStatus.PLAYING
+          and m.sessionCode is null and m.claimedAt = :claimedAt
+        """)
+    int unclaim(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt);
+}
@@ -0,0 +1,27 @@
+package com.dartcounter.repository;
+
+import com.dartcounter.entity.Tournament;
+import com.dartcounter.entity.TournamentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TournamentRepository extends JpaRepository<Tournament, String> {
+
+    @Query("select t.code from Tournament t where t.status = :status")
+    List<String> findCodesByStatus(@Param("status") TournamentStatus status);
+
+    @Modifying
+    @Query("""
+        update Tournament t
+        set t.status = com.dartcounter.entity.TournamentStatus.FINISHED,
+            t.winnerName = :winnerName
+        where t.code = :code and t.status = com.dartcounter.entity.TournamentStatus.ACTIVE
+        """)
+    int finish(@Param("code") String code, @Param("winnerName") String winnerName);
+}
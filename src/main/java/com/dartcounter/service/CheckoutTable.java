@@ -0,0 +1,231 @@
+package com.dartcounter.service;
+
+import com.dartcounter.entity.OutMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Best checkout route for every finishable score, by out mode and darts left.
+ *
+ * Built once when the class is loaded, by enumerating every combination of up
+ * to three darts. A lookup is a single array read that returns a shared,
+ * immutable list. Scores above {@link #MAX_CHECKOUT}, which includes every
+ * starting score, cannot be finished in one visit and have no route.
+ *
+ * Routes prefer fewer darts, then the lowest combined cost of a favoured
+ * finishing dart (D20, D16, ...) and high trebles or singles for the setup darts.
+ */
+public final class CheckoutTable {
+
+    public static final int MAX_DARTS = 3;
+    // T20 T20 T20
+    public static final int MAX_CHECKOUT = 180;
+
+    // Darts by index: 0-19 S1-S20, 20 S25, 21-40 D1-D20, 41 D25, 42-61 T1-T20
+    private static final int DART_COUNT = 62;
+    private static final int[] POINTS = new int[DART_COUNT];
+    private static final String[] LABELS = new String[DART_COUNT];
+
+    private static final int[] DOUBLE_FINISH_ORDER = {20, 16, 18, 12, 10, 8, 14, 6, 4, 2, 19, 17, 15, 13, 11, 9, 7, 5, 3, 1, 25};
+    private static final int[] SETUP_TREBLES = {20, 19, 18, 17, 16, 15, 14, 13, 12, 11, 10};
+
+    // How much a worse finishing dart weighs against worse setup darts
+    private static final int FINISH_WEIGHT = 3;
+
+    private static final short NO_ROUTE = -1;
+    private static final int SCORES = MAX_CHECKOUT + 1;
+
+    // Route id per (out mode, darts left, score); see slot()
+    private static final short[] ROUTE_IDS = new short[OutMode.values().length * MAX_DARTS * SCORES];
+    private static final List<List<String>> ROUTES = new ArrayList<>();
+
+    static {
+        for (int n = 1; n <= 20; n++) {
+            define(single(n), "S" + n, n);
+            define(dbl(n), "D" + n, 2 * n);
+            define(treble(n), "T" + n, 3 * n);
+        }
+        define(single(25), "S25", 25);
+        define(dbl(25), "D25", 50);
+
+        Arrays.fill(ROUTE_IDS, NO_ROUTE);
+        int[] setupRank = setupRanks();
+        Map<List<String>, Short> routeIds = new HashMap<>();
+        for (OutMode mode : OutMode.values()) {
+            build(mode, finishRanks(mode), setupRank, routeIds);
+        }
+    }
+
+    private CheckoutTable() {
+    }
+
+    /**
+     * The best route for a remaining score with the given darts left in the
+     * visit, or an empty list if it cannot be finished.
+     */
+    public static List<String> route(OutMode mode, int score, int dartsLeft) {
+        if (score < 1 || score > MAX_CHECKOUT || dartsLeft < 1 || dartsLeft > MAX_DARTS) {
+            return List.of();
+        }
+        short id = ROUTE_IDS[slot(mode, dartsLeft, score)];
+        return id == NO_ROUTE ? List.of() : ROUTES.get(id);
+    }
+
+    private static int slot(OutMode mode, int dartsLeft, int score) {
+        return (mode.ordinal() * MAX_DARTS + dartsLeft - 1) * SCORES + score;
+    }
+
+    private static void build(OutMode mode, int[] finishRank, int[] setupRank, Map<List<String>, Short> routeIds) {
+        // Best route per score using at most d darts, as a sort key and the darts themselves
+        long[] bestKey = new long[SCORES];
+        int[][] bestDarts = new int[SCORES][];
+        Arrays.fill(bestKey, Long.MAX_VALUE);
+
+        for (int darts = 1; darts <= MAX_DARTS; darts++) {
+            for (int finish = 0; finish < DART_COUNT; finish++) {
+                if (finishRank[finish] < 0) {
+                    continue;
+                }
+                if (darts == 1) {
+                    offer(bestKey, bestDarts, key(1, finishRank[finish], 0), new int[]{finish});
+                    continue;
+                }
+                for (int a = 0; a < DART_COUNT; a++) {
+                    if (darts == 2) {
+                        offer(bestKey, bestDarts, key(2, finishRank[finish], setupRank[a]), new int[]{a, finish});
+                        continue;
+                    }
+                    // Setup darts are interchangeable, so only consider them in preference order
+                    for (int b = 0; b < DART_COUNT; b++) {
+                        if (setupRank[b] >= setupRank[a]) {
+                            offer(bestKey, bestDarts, key(3, finishRank[finish], setupRank[a] + setupRank[b]),
+                                new int[]{a, b, finish});
+                        }
+                    }
+                }
+            }
+
+            // Routes found so far need at most this many darts
+            for (int score = 1; score < SCORES; score++) {
+                if (bestDarts[score] != null) {
+                    ROUTE_IDS[slot(mode, darts, score)] = routeId(bestDarts[score], routeIds);
+                }
+            }
+        }
+    }
+
+    private static void offer(long[] bestKey, int[][] bestDarts, long key, int[] darts) {
+        int score = 0;
+        for (int dart : darts) {
+            score += POINTS[dart];
+        }
+        if (score < SCORES && key < bestKey[score]) {
+            bestKey[score] = key;
+            bestDarts[score] = darts;
+        }
+    }
+
+    private static long key(int darts, int finishRank, int setupCost) {
+        return ((long) darts << 32) | (finishRank * FINISH_WEIGHT + setupCost);
+    }
+
+    private static short routeId(int[] darts, Map<List<String>, Short> routeIds) {
+        String[] labels = new String[darts.length];
+        for (int i = 0; i < darts.length; i++) {
+            labels[i] = LABELS[darts[i]];
+        }
+        return routeIds.computeIfAbsent(List.of(labels), route -> {
+            ROUTES.add(route);
+            return (short) (ROUTES.size() - 1);
+        });
+    }
+
+    /**
+     * Rank of each dart as a finishing dart in the given mode, lower is better;
+     * -1 if it cannot finish.
+     */
+    private static int[] finishRanks(OutMode mode) {
+        int[] rank = new int[DART_COUNT];
+        Arrays.fill(rank, -1);
+        int next = 0;
+        switch (mode) {
+            case DOUBLE -> {
+                for (int n : DOUBLE_FINISH_ORDER) {
+                    rank[dbl(n)] = next++;
+                }
+            }
+            case TRIPLE -> {
+                for (int n = 20; n >= 1; n--) {
+                    rank[treble(n)] = next++;
+                }
+            }
+            case MASTER -> {
+                for (int n : DOUBLE_FINISH_ORDER) {
+                    rank[dbl(n)] = next++;
+                }
+                for (int n = 20; n >= 1; n--) {
+                    rank[treble(n)] = next++;
+                }
+            }
+            case SINGLE -> {
+                // Any dart finishes; favour the bigger targets
+                for (int n = 20; n >= 1; n--) {
+                    rank[single(n)] = next++;
+                }
+                rank[single(25)] = next++;
+                for (int n : DOUBLE_FINISH_ORDER) {
+                    rank[dbl(n)] = next++;
+                }
+                for (int n = 20; n >= 1; n--) {
+                    rank[treble(n)] = next++;
+                }
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Rank of each dart as a setup dart, lower is better: high trebles, then
+     * singles, then the remaining trebles, the bull and doubles.
+     */
+    private static int[] setupRanks() {
+        int[] rank = new int[DART_COUNT];
+        int next = 0;
+        for (int n : SETUP_TREBLES) {
+            rank[treble(n)] = next++;
+        }
+        for (int n = 20; n >= 1; n--) {
+            rank[single(n)] = next++;
+        }
+        for (int n = 9; n >= 1; n--) {
+            rank[treble(n)] = next++;
+        }
+        rank[single(25)] = next++;
+        rank[dbl(25)] = next++;
+        for (int n = 20; n >= 1; n--) {
+            rank[dbl(n)] = next++;
+        }
+        return rank;
+    }
+
+    private static void define(int dart, String label, int points) {
+        LABELS[dart] = label;
+        POINTS[dart] = points;
+    }
+
+    private static int single(int n) {
+        return n == 25 ? 20 : n - 1;
+    }
+
+    private static int dbl(int n) {
+        return n == 25 ? 41 : 20 + n;
+    }
+
+    private static int treble(int n) {
+        return 41 + n;
+    }
+}
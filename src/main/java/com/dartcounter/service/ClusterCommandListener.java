@@ -0,0 +1,101 @@
+package com.dartcounter.service;
+
+import com.dartcounter.config.BrokerProperties;
+import com.dartcounter.dto.GameCommand;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.ReactorNettyTcpStompClient;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives commands forwarded by other nodes for sessions this node owns.
+ * Subscribes to this node's command queue on the relay broker.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterCommandListener {
+
+    private static final long RECONNECT_DELAY_SECONDS = 5;
+
+    private final BrokerProperties broker;
+    private final SessionAffinity affinity;
+    private final GameCommandDispatcher dispatcher;
+
+    private ReactorNettyTcpStompClient client;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!affinity.isClustered()) {
+            return;
+        }
+        client = new ReactorNettyTcpStompClient(broker.getRelayHost(), broker.getRelayPort());
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        running = true;
+        connect();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    private void connect() {
+        StompHeaders headers = new StompHeaders();
+        headers.setLogin(broker.getSystemLogin());
+        headers.setPasscode(broker.getSystemPasscode());
+        if (broker.getVirtualHost() != null) {
+            headers.setHost(broker.getVirtualHost());
+        }
+
+        client.connectAsync(headers, new StompSessionHandlerAdapter() {
+            @Override
+            public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+                String destination = SessionAffinity.commandDestination(affinity.getNodeId());
+                session.subscribe(destination, new StompFrameHandler() {
+                    @Override
+                    public Type getPayloadType(StompHeaders frameHeaders) {
+                        return GameCommand.class;
+                    }
+
+                    @Override
+                    public void handleFrame(StompHeaders frameHeaders, Object payload) {
+                        dispatcher.execute((GameCommand) payload);
+                    }
+                });
+                log.info("Node {} listening for forwarded commands on {}", affinity.getNodeId(), destination);
+            }
+
+            @Override
+            public void handleTransportError(StompSession session, Throwable exception) {
+                log.warn("Lost connection to broker: {}", exception.getMessage());
+                scheduleReconnect();
+            }
+        }).exceptionally(error -> {
+            // handleTransportError has already scheduled the reconnect
+            log.debug("Broker connect attempt failed: {}", error.getMessage());
+            return null;
+        });
+    }
+
+    private void scheduleReconnect() {
+        if (running) {
+            CompletableFuture.delayedExecutor(RECONNECT_DELAY_SECONDS, TimeUnit.SECONDS).execute(this::connect);
+        }
+    }
+}
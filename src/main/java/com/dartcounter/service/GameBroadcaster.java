@@ -0,0 +1,206 @@
+package com.dartcounter.service;
+
+import com.dartcounter.config.BrokerProperties;
+import com.dartcounter.dto.GameStateDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends game state to STOMP clients: broadcasts to /topic/session/{code}
+ * and direct replies to a single client on /user/queue/session/{code}.
+ *
+ * Broadcasts are encoded to JSON here, once per update, and sent as ready-made
+ * byte payloads that the broker hands unchanged to every subscriber. Updates
+ * are also encoded in the binary {@link WireFormat} when anyone may be
+ * subscribed to the binary topic.
+ *
+ * Broadcasts of a session are coalesced: the first update is sent right away
+ * and opens a window of dartcounter.broadcast.coalesce-window-ms, during which
+ * later updates only replace each other. When the window ends, the latest of
+ * them is sent and the next window opens. Bursts of commands thus cost at most
+ * one broadcast per window, and deltas skip the intermediate versions.
+ */
+@Component
+@RequiredArgsConstructor
+public class GameBroadcaster {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final StateDeltaTracker deltaTracker;
+    private final TopicSubscriptionTracker subscriptions;
+    private final GameMetrics metrics;
+    private final ObjectMapper objectMapper;
+    private final BrokerProperties broker;
+
+    // 0 sends every update immediately
+    @Value("${dartcounter.broadcast.coalesce-window-ms:20}")
+    private long coalesceWindowMs;
+
+    // Sessions inside a coalescing window, with the update waiting for its end
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    // The timer thread only hands each window end over; encoding and sending run on virtual threads
+    private final ScheduledExecutorService coalescer = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("broadcast-coalescer").daemon().factory());
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Broadcasts a state update to all clients subscribed to a session, or
+     * holds it back until the session's coalescing window ends.
+     */
+    public void broadcastState(String sessionCode, GameStateDTO state) {
+        if (coalesceWindowMs <= 0) {
+            send(sessionCode, state);
+            return;
+        }
+        Window opened = new Window(null);
+        Window window = windows.compute(sessionCode, (code, current) -> {
+            if (current == null) {
+                return opened;
+            }
+            if (current.latest != null) {
+                metrics.broadcastCoalesced();
+            }
+            return new Window(state);
+        });
+        if (window == opened) {
+            try {
+                send(sessionCode, state);
+            } finally {
+                scheduleWindowEnd(sessionCode);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coalescer.shutdownNow();
+        senders.shutdown();
+    }
+
+    private void scheduleWindowEnd(String sessionCode) {
+        coalescer.schedule(() -> senders.execute(() -> endWindow(sessionCode)), coalesceWindowMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void endWindow(String sessionCode) {
+        while (true) {
+            Window current = windows.get(sessionCode);
+            if (current == null) {
+                return;
+            }
+            if (current.latest == null) {
+                // Quiet window: the next update is sent right away again
+                if (windows.remove(sessionCode, current)) {
+                    return;
+                }
+            } else if (windows.replace(sessionCode, current, new Window(null))) {
+                try {
+                    send(sessionCode, current.latest);
+                } finally {
+                    scheduleWindowEnd(sessionCode);
+                }
+                return;
+            }
+        }
+    }
+
+    private void send(String sessionCode, GameStateDTO state) {
+        long start = System.nanoTime();
+        String destination = "/topic/session/" + sessionCode;
+        Object payload = deltaTracker.nextBroadcast(state);
+        messagingTemplate.send(destination, encode(payload));
+
+        // With a relay, subscribers on other nodes are not counted here
+        String binaryDestination = WireFormat.binaryDestination(destination);
+        int binarySubscribers = subscriptions.subscribers(binaryDestination);
+        if (binarySubscribers > 0 || broker.isRelay()) {
+            messagingTemplate.send(binaryDestination, encodeBinary(payload));
+        }
+        metrics.recordBroadcast(start, subscriptions.subscribers(destination) + binarySubscribers);
+    }
+
+    /**
+     * Encodes a payload as a JSON message. Its headers are left mutable so that
+     * the template adds the destination in place instead of copying them.
+     */
+    public Message<byte[]> encode(Object payload) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize broadcast payload", e);
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+    }
+
+    /**
+     * Encodes a payload in the binary wire format. The content type makes the
+     * STOMP handler send it as a binary WebSocket message.
+     */
+    public Message<byte[]> encodeBinary(Object payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(WireFormat.BINARY);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(WireFormat.encode(payload), accessor.getMessageHeaders());
+    }
+
+    /**
+     * Replies to a sync request with the changes since the client's version.
+     */
+    public void sendSync(String stompSessionId, String sessionCode, GameStateDTO state, Long fromVersion) {
+        sendToClient(stompSessionId, sessionCode, deltaTracker.since(state, fromVersion));
+    }
+
+    public void sendError(String stompSessionId, String sessionCode, String errorMessage) {
+        GameStateDTO error = GameStateDTO.builder()
+            .sessionCode(sessionCode)
+            .message("Error: " + errorMessage)
+            .build();
+        sendToClient(stompSessionId, sessionCode, error);
+    }
+
+    /**
+     * Sends a message to a single STOMP session, identified by its session id.
+     */
+    public void sendToClient(String stompSessionId, String sessionCode, Object payload) {
+        if (stompSessionId == null) {
+            // Command did not come from a STOMP client, e.g. forwarded from REST
+            return;
+        }
+        long start = System.nanoTime();
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(stompSessionId);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(stompSessionId, "/queue/session/" + sessionCode, payload,
+            accessor.getMessageHeaders());
+        metrics.recordReply(start);
+    }
+
+    // Compared by identity
+    private static final class Window {
+
+        final GameStateDTO latest;
+
+        Window(GameStateDTO latest) {
+            this.latest = latest;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.dartcounter.service;
+
+import com.dartcounter.dto.GameCommand;
+import com.dartcounter.dto.GameStateDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Routes game commands to the node that owns the session and runs them on the
+ * session's mailbox there, then broadcasts the outcome.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GameCommandDispatcher {
+
+    private final GameSessionService sessionService;
+    private final SessionCommandExecutor commandExecutor;
+    private final GameBroadcaster broadcaster;
+    private final SessionAffinity affinity;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final GameMetrics metrics;
+
+    public void dispatch(GameCommand command) {
+        String owner = affinity.ownerOf(command.getSessionCode());
+        if (!owner.equals(affinity.getNodeId())) {
+            log.debug("Forwarding {} for session {} to node {}", command.getType(), command.getSessionCode(), owner);
+            messagingTemplate.convertAndSend(SessionAffinity.commandDestination(owner), command);
+            return;
+        }
+        execute(command);
+    }
+
+    /**
+     * Runs a command on this node, regardless of ownership. The returned future
+     * completes with the resulting state once it has been sent.
+     */
+    public CompletableFuture<GameStateDTO> execute(GameCommand command) {
+        String code = command.getSessionCode();
+        String replyTo = command.getReplySessionId();
+        GameCommand.Type type = command.getType();
+
+        // Latency covers mailbox wait, execution and sending the result. The result
+        // is sent from the mailbox, so broadcasts of one session never overtake each other
+        long received = System.nanoTime();
+        return commandExecutor.submit(code, () -> metrics.timeExecution(type, () -> apply(command)),
+            (state, error) -> {
+                GameMetrics.Outcome outcome = GameMetrics.Outcome.OK;
+                if (error == null) {
+                    if (type == GameCommand.Type.SYNC) {
+                        broadcaster.sendSync(replyTo, code, state, command.getFromVersion());
+                    } else {
+                        broadcaster.broadcastState(code, state);
+                    }
+                } else if (error instanceof VersionConflictException conflict) {
+                    outcome = GameMetrics.Outcome.CONFLICT;
+                    log.warn("Rejected stale command for session {}: {}", code, conflict.getMessage());
+                    broadcaster.sendToClient(replyTo, code, conflict.getCurrentState());
+                } else {
+                    outcome = GameMetrics.Outcome.ERROR;
+                    log.error("Error processing {} for session {}: {}", type, code, error.getMessage());
+                    broadcaster.sendError(replyTo, code, error.getMessage());
+                }
+                metrics.recordCommand(type, outcome, received);
+            });
+    }
+
+    private GameStateDTO apply(GameCommand command) {
+        String code = command.getSessionCode();
+        return switch (command.getType()) {
+            case THROW -> sessionService.processThrow(code, command.getThrowRequest());
+            case THROW_BATCH -> sessionService.processVisit(code, command.getThrowBatch().getDarts(),
+                command.getThrowBatch().getExpectedVersion());
+            case UNDO -> sessionService.undoLastThrow(code);
+            case NEXT -> sessionService.nextPlayer(code);
+            case RESET -> sessionService.resetGame(code);
+            case START -> sessionService.startGame(code);
+            case SYNC -> sessionService.getCachedState(code).state();
+            case NEXT_LEG -> sessionService.nextLeg(code);
+        };
+    }
+}
@@ -0,0 +1,280 @@
+package com.dartcounter.service;
+
+import com.dartcounter.entity.Dart;
+import com.dartcounter.entity.GameEvent;
+import com.dartcounter.entity.GameSession;
+import com.dartcounter.entity.GameStatus;
+import com.dartcounter.entity.LegSummary;
+import com.dartcounter.entity.MatchProgress;
+import com.dartcounter.entity.Player;
+import com.dartcounter.entity.PlayerStats;
+
+import java.util.List;
+
+/**
+ * The game rules as state transitions on a {@link LiveSession}. Used both to
+ * execute commands and to replay the event log, so the two cannot diverge.
+ * Validation happens before, in {@link GameSessionService}; callers hold the
+ * session lock.
+ *
+ * Player statistics are updated with every throw, and reversed from the undo
+ * frame on undo, so both cost O(1) whatever the length of the leg.
+ *
+ * A won leg that does not decide the match leaves the session LEG_FINISHED,
+ * so that the winning dart can still be undone, until the next leg is started.
+ */
+final class GameEngine {
+
+    enum DartOutcome { SCORED, BUST, LEG_WON, WIN }
+
+    // Undo frame: the state before a throw, packed as dart (8 bits) | player index (8)
+    // | darts thrown (4) | current throw (12) | player's highest visit (8) | score (24)
+    private static final int DART_SHIFT = 56;
+    private static final int PLAYER_SHIFT = 48;
+    private static final int DARTS_THROWN_SHIFT = 44;
+    private static final int CURRENT_THROW_SHIFT = 32;
+    private static final int HIGHEST_VISIT_SHIFT = 24;
+    private static final int SCORE_MASK = 0xFFFFFF;
+
+    private GameEngine() {
+    }
+
+    static DartOutcome throwDart(LiveSession live, ScoringRules rules, int dart) {
+        GameSession session = live.getSession();
+        Player currentPlayer = session.getCurrentPlayer();
+
+        long frame = (long) dart << DART_SHIFT
+            | (long) session.getCurrentPlayerIndex() << PLAYER_SHIFT
+            | (long) session.getDartsThrown() << DARTS_THROWN_SHIFT
+            | (long) currentPlayer.getCurrentThrow() << CURRENT_THROW_SHIFT
+            | (long) currentPlayer.getStats().getHighestVisit() << HIGHEST_VISIT_SHIFT
+            | (currentPlayer.getScore() & SCORE_MASK);
+        live.pushUndoFrame(frame);
+        recordStats(session, rules, frame, 1);
+
+        // Under double-in, darts before the opening double score nothing
+        boolean opened = currentPlayer.getScore() < session.getStartingScore() || rules.opens(dart);
+        int points = opened ? Dart.points(dart) : 0;
+
+        int newScore = currentPlayer.getScore() - points;
+        int newCurrentThrow = currentPlayer.getCurrentThrow() + points;
+
+        // Bust: overshooting, or leaving or finishing in a way the out mode forbids
+        if (rules.isBust(newScore, dart)) {
+            // Revert score to what it was at the start of the turn
+            currentPlayer.setScore(currentPlayer.getScore() + currentPlayer.getCurrentThrow());
+            currentPlayer.setCurrentThrow(0);
+            advanceToNextPlayer(session);
+            return DartOutcome.BUST;
+        }
+
+        currentPlayer.setScore(newScore);
+        currentPlayer.setCurrentThrow(newCurrentThrow);
+
+        if (newScore == 0) {
+            return winLeg(session, currentPlayer);
+        }
+
+        // Auto-advance to next player after 3 darts
+        session.setDartsThrown(session.getDartsThrown() + 1);
+        if (session.getDartsThrown() >= 3) {
+            advanceToNextPlayer(session);
+        }
+        return DartOutcome.SCORED;
+    }
+
+    /**
+     * Restores the state from before the most recent throw; false if there is none.
+     */
+    static boolean undo(LiveSession live) {
+        if (live.getUndoDepth() == 0) {
+            return false;
+        }
+        long frame = live.popUndoFrame();
+        GameSession session = live.getSession();
+        recordStats(session, rulesOf(live), frame, -1);
+
+        int playerIndex = (int) (frame >>> PLAYER_SHIFT) & 0xFF;
+        Player player = session.getPlayers().get(playerIndex);
+        player.setScore((int) frame & SCORE_MASK);
+        player.setCurrentThrow((int) (frame >>> CURRENT_THROW_SHIFT) & 0xFFF);
+
+        session.setCurrentPlayerIndex(playerIndex);
+        session.setDartsThrown((int) (frame >>> DARTS_THROWN_SHIFT) & 0xF);
+
+        // The undone dart won the leg: reactivate it
+        if (session.getStatus() == GameStatus.FINISHED || session.getStatus() == GameStatus.LEG_FINISHED) {
+            // Games finished before legs were counted have none to take back
+            if (player.getLegsWon() > 0) {
+                if (player.getLegsWon() == session.getMatch().getLegsPerSet()) {
+                    player.setSetsWon(player.getSetsWon() - 1);
+                }
+                player.setLegsWon(player.getLegsWon() - 1);
+            }
+            session.setStatus(GameStatus.ACTIVE);
+            session.setWinnerName(null);
+        }
+        return true;
+    }
+
+    static void start(LiveSession live) {
+        live.getSession().setStatus(GameStatus.ACTIVE);
+    }
+
+    static void nextPlayer(LiveSession live) {
+        advanceToNextPlayer(live.getSession());
+    }
+
+    /**
+     * Compacts the finished leg into a {@link LegSummary} and starts the next
+     * one, thrown first by the next player in order. Only valid while LEG_FINISHED.
+     */
+    static void nextLeg(LiveSession live) {
+        GameSession session = live.getSession();
+        MatchProgress match = session.getMatch();
+        List<Player> players = session.getPlayers();
+
+        int[] darts = new int[players.size()];
+        int[] points = new int[players.size()];
+        int winner = 0;
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            darts[i] = player.getStats().getDartsThrown();
+            points[i] = player.getStats().getPointsScored();
+            if (player.getScore() == 0) {
+                winner = i;
+            }
+        }
+        match.setLegSummaries(new LegSummary(match.getSetNumber(), match.getLegNumber(), match.getLegStarter(),
+            winner, darts, points).appendTo(match.getLegSummaries()));
+
+        if (players.get(winner).getLegsWon() >= match.getLegsPerSet()) {
+            players.forEach(player -> player.setLegsWon(0));
+            match.setSetNumber(match.getSetNumber() + 1);
+        }
+        match.setLegNumber(match.getLegNumber() + 1);
+        match.setLegStarter((match.getLegStarter() + 1) % players.size());
+
+        startLeg(live);
+    }
+
+    static void reset(LiveSession live) {
+        GameSession session = live.getSession();
+        for (Player player : session.getPlayers()) {
+            player.setLegsWon(0);
+            player.setSetsWon(0);
+        }
+        MatchProgress match = session.getMatch();
+        match.setSetNumber(1);
+        match.setLegNumber(1);
+        match.setLegStarter(0);
+        match.setLegSummaries(null);
+        startLeg(live);
+    }
+
+    private static void startLeg(LiveSession live) {
+        GameSession session = live.getSession();
+        for (Player player : session.getPlayers()) {
+            player.setScore(session.getStartingScore());
+            player.setCurrentThrow(0);
+            player.setStats(new PlayerStats());
+        }
+        session.setCurrentPlayerIndex(session.getMatch().getLegStarter());
+        session.setDartsThrown(0);
+        session.setStatus(GameStatus.ACTIVE);
+        session.setWinnerName(null);
+        live.clearUndoFrames();
+    }
+
+    /**
+     * Applies an event read back from the log.
+     */
+    static void replay(LiveSession live, GameEvent event) {
+        switch (event.getType()) {
+            case START -> start(live);
+            case THROW -> throwDart(live, rulesOf(live), event.getDart());
+            case UNDO -> undo(live);
+            case NEXT -> nextPlayer(live);
+            case RESET -> reset(live);
+            case NEXT_LEG -> nextLeg(live);
+        }
+        live.replayed(event);
+    }
+
+    static ScoringRules rulesOf(LiveSession live) {
+        return ScoringRules.of(live.getSession().getOutMode(), live.getSession().getInMode());
+    }
+
+    private static DartOutcome winLeg(GameSession session, Player winner) {
+        MatchProgress match = session.getMatch();
+        winner.setLegsWon(winner.getLegsWon() + 1);
+        if (winner.getLegsWon() == match.getLegsPerSet()) {
+            winner.setSetsWon(winner.getSetsWon() + 1);
+        }
+        session.setWinnerName(winner.getName());
+        if (winner.getSetsWon() >= match.getSetsToWin()) {
+            session.setStatus(GameStatus.FINISHED);
+            return DartOutcome.WIN;
+        }
+        session.setStatus(GameStatus.LEG_FINISHED);
+        return DartOutcome.LEG_WON;
+    }
+
+    /**
+     * Adds (sign 1) or takes back (sign -1) the throw recorded in an undo frame
+     * to the thrower's statistics, re-deriving its outcome from the state before it.
+     */
+    private static void recordStats(GameSession session, ScoringRules rules, long frame, int sign) {
+        int dart = (int) (frame >>> DART_SHIFT) & 0xFF;
+        int playerIndex = (int) (frame >>> PLAYER_SHIFT) & 0xFF;
+        int dartsBefore = (int) (frame >>> DARTS_THROWN_SHIFT) & 0xF;
+        int throwBefore = (int) (frame >>> CURRENT_THROW_SHIFT) & 0xFFF;
+        int highestBefore = (int) (frame >>> HIGHEST_VISIT_SHIFT) & 0xFF;
+        int scoreBefore = (int) frame & SCORE_MASK;
+        PlayerStats stats = session.getPlayers().get(playerIndex).getStats();
+
+        boolean opened = scoreBefore < session.getStartingScore() || rules.opens(dart);
+        int points = opened ? Dart.points(dart) : 0;
+        int remaining = scoreBefore - points;
+        boolean bust = rules.isBust(remaining, dart);
+        boolean win = !bust && remaining == 0;
+        boolean visitEnded = win || (!bust && dartsBefore == 2);
+        int visitTotal = throwBefore + points;
+
+        // A bust takes back the points of the whole visit
+        int scored = bust ? -throwBefore : points;
+        int newVisit = dartsBefore == 0 ? 1 : 0;
+        int visit = sign > 0 ? stats.getVisits() + newVisit : stats.getVisits();
+        boolean first9 = visit <= 3;
+
+        stats.setVisits(stats.getVisits() + sign * newVisit);
+        stats.setDartsThrown(stats.getDartsThrown() + sign);
+        stats.setPointsScored(stats.getPointsScored() + sign * scored);
+        if (first9) {
+            stats.setFirst9Darts(stats.getFirst9Darts() + sign);
+            stats.setFirst9Points(stats.getFirst9Points() + sign * scored);
+        }
+        if (rules.isOneDartFinish(scoreBefore)) {
+            stats.setCheckoutAttempts(stats.getCheckoutAttempts() + sign);
+        }
+        if (win) {
+            stats.setCheckouts(stats.getCheckouts() + sign);
+        }
+        if (visitEnded && visitTotal == 180) {
+            stats.setOneEighties(stats.getOneEighties() + sign);
+        }
+        stats.setHighestVisit(sign > 0 && visitEnded ? Math.max(highestBefore, visitTotal) : highestBefore);
+    }
+
+    private static void advanceToNextPlayer(GameSession session) {
+        // Reset current player's turn score
+        Player currentPlayer = session.getCurrentPlayer();
+        if (currentPlayer != null) {
+            currentPlayer.setCurrentThrow(0);
+        }
+
+        int nextIndex = (session.getCurrentPlayerIndex() + 1) % session.getPlayers().size();
+        session.setCurrentPlayerIndex(nextIndex);
+        session.setDartsThrown(0);
+    }
+}
@@ -0,0 +1,134 @@
+package com.dartcounter.service;
+
+import com.dartcounter.dto.GameCommand;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for game commands and their broadcasts. All meters are created up
+ * front so that recording on the per-dart path is a plain field access.
+ *
+ * Percentile histograms are switched on in application.properties.
+ */
+@Component
+public class GameMetrics {
+
+    public enum Outcome { OK, CONFLICT, ERROR }
+
+    private final Map<GameCommand.Type, Map<Outcome, Timer>> commandLatency = new EnumMap<>(GameCommand.Type.class);
+    private final Map<GameCommand.Type, Timer> commandExecution = new EnumMap<>(GameCommand.Type.class);
+    private final Timer topicBroadcast;
+    private final Timer clientReply;
+    private final DistributionSummary broadcastFanout;
+    private final Counter broadcastsCoalesced;
+    private final Counter throwsScored;
+    private final Counter busts;
+    private final Counter wins;
+    private final Counter legWins;
+    private final Counter undos;
+    private final Counter sessionCodeRetries;
+
+    public GameMetrics(MeterRegistry registry) {
+        for (GameCommand.Type type : GameCommand.Type.values()) {
+            Map<Outcome, Timer> byOutcome = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                byOutcome.put(outcome, Timer.builder("dartcounter.command.latency")
+                    .description("Time from receiving a command until its result has been sent")
+                    .tag("type", type.name().toLowerCase())
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry));
+            }
+            commandLatency.put(type, byOutcome);
+            commandExecution.put(type, Timer.builder("dartcounter.command.execution")
+                .description("Time spent applying a command to the session, including any database work")
+                .tag("type", type.name().toLowerCase())
+                .register(registry));
+        }
+
+        this.topicBroadcast = sendTimer(registry, "topic");
+        this.clientReply = sendTimer(registry, "user");
+        this.broadcastFanout = DistributionSummary.builder("dartcounter.broadcast.fanout")
+            .description("Subscribers on this node reached by one session broadcast")
+            .register(registry);
+        this.broadcastsCoalesced = Counter.builder("dartcounter.broadcast.coalesced")
+            .description("State updates replaced by a newer one before they were broadcast")
+            .register(registry);
+        this.throwsScored = throwCounter(registry, "scored");
+        this.busts = throwCounter(registry, "bust");
+        this.wins = throwCounter(registry, "win");
+        this.legWins = throwCounter(registry, "leg_won");
+        this.undos = Counter.builder("dartcounter.undos")
+            .description("Throws taken back")
+            .register(registry);
+        this.sessionCodeRetries = Counter.builder("dartcounter.session.code.retries")
+            .description("Session inserts retried because the code was already taken")
+            .register(registry);
+    }
+
+    public <T> T timeExecution(GameCommand.Type type, Supplier<T> command) {
+        return commandExecution.get(type).record(command);
+    }
+
+    public void recordCommand(GameCommand.Type type, Outcome outcome, long startNanos) {
+        commandLatency.get(type).get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBroadcast(long startNanos, int subscribers) {
+        topicBroadcast.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        broadcastFanout.record(subscribers);
+    }
+
+    public void broadcastCoalesced() {
+        broadcastsCoalesced.increment();
+    }
+
+    public void recordReply(long startNanos) {
+        clientReply.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void throwScored() {
+        throwsScored.increment();
+    }
+
+    public void bust() {
+        busts.increment();
+    }
+
+    public void win() {
+        wins.increment();
+    }
+
+    public void legWon() {
+        legWins.increment();
+    }
+
+    public void undo() {
+        undos.increment();
+    }
+
+    public void sessionCodeRetried() {
+        sessionCodeRetries.increment();
+    }
+
+    private static Timer sendTimer(MeterRegistry registry, String destination) {
+        return Timer.builder("dartcounter.broadcast.duration")
+            .description("Time spent serializing and handing a state message to the broker")
+            .tag("destination", destination)
+            .register(registry);
+    }
+
+    private static Counter throwCounter(MeterRegistry registry, String result) {
+        return Counter.builder("dartcounter.throws")
+            .description("Darts processed, by result")
+            .tag("result", result)
+            .register(registry);
+    }
+}
@@ -2,42 +2,114 @@ package com.dartcounter.service;
 
 import com.dartcounter.dto.CreateSessionRequest;
 import com.dartcounter.dto.GameStateDTO;
+import com.dartcounter.dto.LegSummaryDTO;
+import com.dartcounter.dto.PlayerStatsDTO;
 import com.dartcounter.dto.ThrowRequest;
+import com.dartcounter.entity.Dart;
+import com.dartcounter.entity.GameEventType;
 import com.dartcounter.entity.GameSession;
 import com.dartcounter.entity.GameStatus;
 import com.dartcounter.entity.Player;
-import com.dartcounter.entity.ThrowHistory;
+import com.dartcounter.repository.GameEventStore;
 import com.dartcounter.repository.GameSessionRepository;
-import com.dartcounter.repository.ThrowHistoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.List;
-
+import java.util.function.Function;
+
+/**
+ * Game commands run against the resident copy of a session held by
+ * {@link LiveSessionRegistry}; the database is only touched to load a session
+ * and by the {@link WriteBehindFlusher}.
+ *
+ * Every command that changes the game appends to the session's event log;
+ * the rules themselves live in {@link GameEngine}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class GameSessionService {
 
     private final GameSessionRepository sessionRepository;
-    private final ThrowHistoryRepository historyRepository;
-
-    private static final String ALPHANUMERIC = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
-    private static final SecureRandom RANDOM = new SecureRandom();
+    private final GameEventStore eventStore;
+    private final LiveSessionRegistry liveSessions;
+    private final WriteBehindFlusher flusher;
+    private final StateDeltaTracker deltaTracker;
+    private final GameStateCache stateCache;
+    private final SessionCodeAllocator codeAllocator;
+    private final GameMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // A new code can clash with a recycled one handed out by another node, or with
+    // a random code issued before codes came from the allocator's permutation
+    private static final int MAX_CODE_ATTEMPTS = 3;
 
-    @Transactional
     public GameSession createSession(CreateSessionRequest request) {
-        String sessionCode = generateUniqueSessionCode();
+        return createSession(request, null);
+    }
+
+    /**
+     * Creates a session, as a match of the given tournament if not null.
+     */
+    public GameSession createSession(CreateSessionRequest request, String tournamentCode) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                GameSession session = newSession(codeAllocator.nextCode(), request, tournamentCode);
+                // Persist (never merge) so that a duplicate code fails instead of overwriting
+                GameSession saved = sessionRepository.saveAndFlush(session);
+                log.info("Created session {} with {} players", saved.getSessionCode(), saved.getPlayers().size());
+                return saved;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_CODE_ATTEMPTS) {
+                    throw e;
+                }
+                metrics.sessionCodeRetried();
+                log.warn("Session code already taken, retrying: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Creates many sessions in one transaction, so that their rows are inserted
+     * in JDBC batches rather than one round-trip each. Falls back to creating
+     * them one by one if a code turns out to be taken.
+     */
+    public List<GameSession> createSessions(List<CreateSessionRequest> requests, String tournamentCode) {
+        List<GameSession> sessions = new ArrayList<>(requests.size());
+        for (CreateSessionRequest request : requests) {
+            sessions.add(newSession(codeAllocator.nextCode(), request, tournamentCode));
+        }
+        try {
+            List<GameSession> saved = sessionRepository.saveAll(sessions);
+            log.info("Created {} sessions", saved.size());
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            metrics.sessionCodeRetried();
+            log.warn("Session code already taken, creating sessions one by one: {}", e.getMessage());
+            return requests.stream()
+                .map(request -> createSession(request, tournamentCode))
+                .toList();
+        }
+    }
 
+    private static GameSession newSession(String sessionCode, CreateSessionRequest request, String tournamentCode) {
         GameSession session = new GameSession();
         session.setSessionCode(sessionCode);
         session.setStartingScore(request.getStartingScore());
+        session.setOutMode(request.getOutMode());
+        session.setInMode(request.getInMode());
         session.setStatus(GameStatus.WAITING);
         session.setCurrentPlayerIndex(0);
         session.setDartsThrown(0);
+        session.getMatch().setLegsPerSet(request.getLegsPerSet());
+        session.getMatch().setSetsToWin(request.getSetsToWin());
+        session.setTournamentCode(tournamentCode);
 
         // Create players
         List<String> playerNames = request.getPlayerNames();
@@ -45,9 +117,7 @@ public class GameSessionService {
             Player player = new Player(playerNames.get(i), request.getStartingScore(), i);
             session.addPlayer(player);
         }
-
-        log.info("Created session {} with {} players", sessionCode, playerNames.size());
-        return sessionRepository.save(session);
+        return session;
     }
 
     @Transactional(readOnly = true)
@@ -56,224 +126,277 @@ public class GameSessionService {
             .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionCode));
     }
 
-    @Transactional
-    public GameSession joinSession(String sessionCode) {
-        GameSession session = getSession(sessionCode);
+    /**
+     * Returns the current state, preferring the resident copy. Otherwise the
+     * session is rebuilt from its snapshot and log without making it resident.
+     */
+    public GameStateDTO getState(String sessionCode) {
+        return read(sessionCode, GameStateDTO::from);
+    }
+
+    /**
+     * The statistics of each player's current leg. They are kept up to date by
+     * every throw and undo, so reading them costs nothing per dart thrown.
+     */
+    public List<PlayerStatsDTO> getStats(String sessionCode) {
+        return read(sessionCode, session -> session.getPlayers().stream()
+            .map(PlayerStatsDTO::from)
+            .toList());
+    }
+
+    /**
+     * The current state from the read cache, together with its JSON form.
+     * Only up to date for sessions owned by this node.
+     */
+    public GameStateCache.CachedState getCachedState(String sessionCode) {
+        return stateCache.get(sessionCode.toUpperCase(), this::getState);
+    }
+
+    public GameStateDTO joinSession(String sessionCode) {
+        GameStateDTO state = getState(sessionCode);
 
-        if (session.getStatus() == GameStatus.FINISHED) {
+        if (GameStatus.FINISHED.name().equals(state.getStatus())) {
             throw new IllegalStateException("Cannot join a finished game");
         }
 
         log.info("Device joined session {}", sessionCode);
-        return session;
+        return state;
     }
 
-    @Transactional
-    public GameSession startGame(String sessionCode) {
-        GameSession session = getSession(sessionCode);
+    public GameStateDTO startGame(String sessionCode) {
+        return withLiveSession(sessionCode, live -> {
+            GameSession session = live.getSession();
 
-        if (session.getStatus() != GameStatus.WAITING) {
-            throw new IllegalStateException("Game already started or finished");
-        }
+            if (session.getStatus() != GameStatus.WAITING) {
+                throw new IllegalStateException("Game already started or finished");
+            }
 
-        if (session.getPlayers().size() < 2) {
-            throw new IllegalStateException("Need at least 2 players to start");
-        }
+            if (session.getPlayers().size() < 2) {
+                throw new IllegalStateException("Need at least 2 players to start");
+            }
 
-        session.setStatus(GameStatus.ACTIVE);
-        log.info("Game started for session {}", sessionCode);
-        return sessionRepository.save(session);
+            GameEngine.start(live);
+            live.markDirty();
+            live.append(GameEventType.START, 0);
+            log.info("Game started for session {}", sessionCode);
+            return GameStateDTO.from(session, "Game started!");
+        });
     }
 
-    @Transactional
     public GameStateDTO processThrow(String sessionCode, ThrowRequest request) {
-        GameSession session = getSession(sessionCode);
-
-        if (session.getStatus() != GameStatus.ACTIVE) {
-            throw new IllegalStateException("Game is not active");
-        }
-
-        Player currentPlayer = session.getCurrentPlayer();
-        if (currentPlayer == null) {
-            throw new IllegalStateException("No current player");
-        }
-
-        // Store history for undo
-        ThrowHistory history = new ThrowHistory(
-            session.getCurrentPlayerIndex(),
-            request.getPoints(),
-            currentPlayer.getScore(),
-            currentPlayer.getCurrentThrow(),
-            session.getDartsThrown()
-        );
-        session.addThrowHistory(history);
-
-        // Calculate new score
-        int points = request.getPoints();
-        int newScore = currentPlayer.getScore() - points;
-        int newCurrentThrow = currentPlayer.getCurrentThrow() + points;
-
-        // Check for bust (score < 0 or score == 1)
-        if (newScore < 0 || newScore == 1) {
-            // Bust! Revert the entire turn
-            return handleBust(session, currentPlayer);
-        }
+        return processVisit(sessionCode, List.of(request), request.getExpectedVersion());
+    }
 
-        // Update player score
-        currentPlayer.setScore(newScore);
-        currentPlayer.setCurrentThrow(newCurrentThrow);
+    /**
+     * Applies 1-3 darts of the current visit as one command: a single version
+     * bump and a single resulting state. Darts after a bust or a win are ignored.
+     */
+    public GameStateDTO processVisit(String sessionCode, List<ThrowRequest> darts, Long expectedVersion) {
+        return withLiveSession(sessionCode, live -> {
+            GameSession session = live.getSession();
 
-        // Check for win
-        if (newScore == 0) {
-            return handleWin(session, currentPlayer);
-        }
+            // Reject stale commands before touching any state
+            checkExpectedVersion(session, expectedVersion);
 
-        // Increment darts thrown
-        session.setDartsThrown(session.getDartsThrown() + 1);
+            if (session.getStatus() != GameStatus.ACTIVE) {
+                throw new IllegalStateException("Game is not active");
+            }
+            if (session.getCurrentPlayer() == null) {
+                throw new IllegalStateException("No current player");
+            }
 
-        // Auto-advance to next player after 3 darts
-        if (session.getDartsThrown() >= 3) {
-            advanceToNextPlayer(session);
-        }
+            int dartsLeft = 3 - session.getDartsThrown();
+            if (darts.isEmpty() || darts.size() > dartsLeft) {
+                throw new IllegalStateException("This visit has " + dartsLeft + " darts left");
+            }
+            // Validate every dart before changing anything, so a batch applies entirely or not at all
+            for (ThrowRequest request : darts) {
+                Dart.pack(request.getSegment(), request.getMultiplier());
+            }
 
-        sessionRepository.save(session);
-        return GameStateDTO.from(session);
+            live.markDirty();
+            ScoringRules rules = GameEngine.rulesOf(live);
+            String message = null;
+            for (int i = 0; i < darts.size() && message == null; i++) {
+                ThrowRequest request = darts.get(i);
+                int dart = Dart.pack(request.getSegment(), request.getMultiplier());
+                String player = session.getCurrentPlayer().getName();
+                GameEngine.DartOutcome outcome = GameEngine.throwDart(live, rules, dart);
+                live.append(GameEventType.THROW, dart);
+                message = describe(outcome, player, sessionCode);
+                if (outcome == GameEngine.DartOutcome.WIN && session.getTournamentCode() != null) {
+                    eventPublisher.publishEvent(new MatchFinishedEvent(session.getTournamentCode(),
+                        session.getSessionCode(), session.getWinnerName()));
+                }
+            }
+            return GameStateDTO.from(session, message);
+        });
     }
 
-    @Transactional
     public GameStateDTO undoLastThrow(String sessionCode) {
-        GameSession session = getSession(sessionCode);
-
-        if (session.getThrowHistory().isEmpty()) {
-            throw new IllegalStateException("No throws to undo");
-        }
-
-        // Get the most recent throw
-        ThrowHistory lastThrow = session.getThrowHistory().get(0);
+        return withLiveSession(sessionCode, live -> {
+            checkResultNotRecorded(live.getSession());
+            if (!GameEngine.undo(live)) {
+                throw new IllegalStateException("No throws to undo");
+            }
+            live.markDirty();
+            live.append(GameEventType.UNDO, 0);
+            metrics.undo();
 
-        // Restore player state
-        Player player = session.getPlayers().get(lastThrow.getPlayerIndex());
-        player.setScore(lastThrow.getPreviousScore());
-        player.setCurrentThrow(lastThrow.getPreviousCurrentThrow());
+            log.info("Undid last throw in session {}", sessionCode);
+            return GameStateDTO.from(live.getSession(), "Undo successful");
+        });
+    }
 
-        // Restore game state
-        session.setCurrentPlayerIndex(lastThrow.getPlayerIndex());
-        session.setDartsThrown(lastThrow.getPreviousDartsThrown());
+    public GameStateDTO nextPlayer(String sessionCode) {
+        return withLiveSession(sessionCode, live -> {
+            GameSession session = live.getSession();
 
-        // If game was finished, reactivate it
-        if (session.getStatus() == GameStatus.FINISHED) {
-            session.setStatus(GameStatus.ACTIVE);
-            session.setWinnerName(null);
-        }
+            if (session.getStatus() != GameStatus.ACTIVE) {
+                throw new IllegalStateException("Game is not active");
+            }
 
-        // Remove the history entry
-        session.getThrowHistory().remove(0);
-        historyRepository.delete(lastThrow);
+            GameEngine.nextPlayer(live);
+            live.markDirty();
+            live.append(GameEventType.NEXT, 0);
 
-        sessionRepository.save(session);
-        log.info("Undid last throw in session {}", sessionCode);
-        return GameStateDTO.from(session, "Undo successful");
+            return GameStateDTO.from(session);
+        });
     }
 
-    @Transactional
-    public GameStateDTO nextPlayer(String sessionCode) {
-        GameSession session = getSession(sessionCode);
+    /**
+     * Starts the next leg of a match once the previous one has been won.
+     */
+    public GameStateDTO nextLeg(String sessionCode) {
+        return withLiveSession(sessionCode, live -> {
+            GameSession session = live.getSession();
 
-        if (session.getStatus() != GameStatus.ACTIVE) {
-            throw new IllegalStateException("Game is not active");
-        }
+            if (session.getStatus() != GameStatus.LEG_FINISHED) {
+                throw new IllegalStateException("No finished leg to continue from");
+            }
 
-        advanceToNextPlayer(session);
-        sessionRepository.save(session);
+            GameEngine.nextLeg(live);
+            live.markDirty();
+            live.append(GameEventType.NEXT_LEG, 0);
 
-        return GameStateDTO.from(session);
+            int leg = session.getMatch().getLegNumber();
+            log.info("Leg {} started for session {}", leg, sessionCode);
+            return GameStateDTO.from(session, "Leg " + leg + ", " + session.getCurrentPlayer().getName() + " to throw first");
+        });
+    }
+
+    /**
+     * The finished legs of the match, in order.
+     */
+    public List<LegSummaryDTO> getLegs(String sessionCode) {
+        return read(sessionCode, LegSummaryDTO::listFrom);
     }
 
     @Transactional
     public void deleteSession(String sessionCode) {
+        LiveSession live = liveSessions.peek(sessionCode);
+        if (live != null) {
+            live.getLock().lock();
+            try {
+                liveSessions.evict(live);
+            } finally {
+                live.getLock().unlock();
+            }
+        }
+
         GameSession session = getSession(sessionCode);
+        eventStore.deleteSession(session.getSessionCode());
         sessionRepository.delete(session);
+        deltaTracker.forget(sessionCode);
+        stateCache.forget(sessionCode);
         log.info("Deleted session {}", sessionCode);
     }
 
-    @Transactional
     public GameStateDTO resetGame(String sessionCode) {
-        GameSession session = getSession(sessionCode);
+        return withLiveSession(sessionCode, live -> {
+            checkResultNotRecorded(live.getSession());
+            GameEngine.reset(live);
+            live.markDirty();
+            live.append(GameEventType.RESET, 0);
+
+            log.info("Reset game for session {}", sessionCode);
+            return GameStateDTO.from(live.getSession(), "Game reset");
+        });
+    }
 
-        // Reset all players
-        for (Player player : session.getPlayers()) {
-            player.setScore(session.getStartingScore());
-            player.setCurrentThrow(0);
+    private <T> T read(String sessionCode, Function<GameSession, T> view) {
+        LiveSession live = liveSessions.peek(sessionCode);
+        if (live == null) {
+            return view.apply(liveSessions.load(sessionCode).getSession());
         }
 
-        // Reset game state
-        session.setCurrentPlayerIndex(0);
-        session.setDartsThrown(0);
-        session.setStatus(GameStatus.ACTIVE);
-        session.setWinnerName(null);
-
-        // Clear history
-        session.getThrowHistory().clear();
-
-        sessionRepository.save(session);
-        log.info("Reset game for session {}", sessionCode);
-        return GameStateDTO.from(session, "Game reset");
+        live.getLock().lock();
+        try {
+            return view.apply(live.getSession());
+        } finally {
+            live.getLock().unlock();
+        }
     }
 
-    private GameStateDTO handleBust(GameSession session, Player currentPlayer) {
-        // Revert score to what it was at the start of the turn
-        int pointsThisTurn = currentPlayer.getCurrentThrow();
-        currentPlayer.setScore(currentPlayer.getScore() + pointsThisTurn);
-        currentPlayer.setCurrentThrow(0);
-
-        // Move to next player
-        advanceToNextPlayer(session);
-
-        sessionRepository.save(session);
-        log.info("Bust for player {} in session {}", currentPlayer.getName(), session.getSessionCode());
-        return GameStateDTO.from(session, "BUST! Turn reverted.");
+    /**
+     * Runs a command against the resident session while holding its lock.
+     * Commands for one session are serialized by this in-memory lock rather than
+     * database row locks. Retries if the session was evicted between lookup and locking.
+     */
+    private <T> T withLiveSession(String sessionCode, Function<LiveSession, T> command) {
+        while (true) {
+            LiveSession live = liveSessions.acquire(sessionCode);
+            live.getLock().lock();
+            try {
+                if (!live.isEvicted()) {
+                    T result = command.apply(live);
+                    stateCache.invalidate(live.getSessionCode(), live.getSession().getVersion());
+                    flusher.writeThrough(live);
+                    return result;
+                }
+            } finally {
+                live.getLock().unlock();
+            }
+        }
     }
 
-    private GameStateDTO handleWin(GameSession session, Player winner) {
-        session.setStatus(GameStatus.FINISHED);
-        session.setWinnerName(winner.getName());
-
-        sessionRepository.save(session);
-        log.info("Player {} won session {}", winner.getName(), session.getSessionCode());
-        return GameStateDTO.from(session, winner.getName() + " wins!");
+    // Once passed on, the result of a tournament match can no longer be taken back
+    private static void checkResultNotRecorded(GameSession session) {
+        if (session.getTournamentCode() != null && session.getStatus() == GameStatus.FINISHED) {
+            throw new IllegalStateException("The result has already been passed to the tournament");
+        }
     }
 
-    private void advanceToNextPlayer(GameSession session) {
-        // Reset current player's turn score
-        Player currentPlayer = session.getCurrentPlayer();
-        if (currentPlayer != null) {
-            currentPlayer.setCurrentThrow(0);
+    private void checkExpectedVersion(GameSession session, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(session.getVersion())) {
+            throw new VersionConflictException(expectedVersion, GameStateDTO.from(session));
         }
-
-        // Move to next player
-        int nextIndex = (session.getCurrentPlayerIndex() + 1) % session.getPlayers().size();
-        session.setCurrentPlayerIndex(nextIndex);
-        session.setDartsThrown(0);
     }
 
-    private String generateUniqueSessionCode() {
-        String code;
-        int attempts = 0;
-        do {
-            code = generateSessionCode();
-            attempts++;
-            if (attempts > 100) {
-                throw new RuntimeException("Could not generate unique session code");
+    /**
+     * The message for a dart that ended the visit, or null.
+     */
+    private String describe(GameEngine.DartOutcome outcome, String player, String sessionCode) {
+        switch (outcome) {
+            case BUST -> {
+                metrics.bust();
+                log.info("Bust for player {} in session {}", player, sessionCode);
+                return "BUST! Turn reverted.";
+            }
+            case LEG_WON -> {
+                metrics.legWon();
+                log.info("Player {} won a leg in session {}", player, sessionCode);
+                return player + " wins the leg!";
+            }
+            case WIN -> {
+                metrics.win();
+                log.info("Player {} won session {}", player, sessionCode);
+                return player + " wins!";
+            }
+            default -> {
+                metrics.throwScored();
+                return null;
             }
-        } while (sessionRepository.existsBySessionCode(code));
-        return code;
-    }
-
-    private String generateSessionCode() {
-        StringBuilder sb = new StringBuilder(6);
-        for (int i = 0; i < 6; i++) {
-            sb.append(ALPHANUMERIC.charAt(RANDOM.nextInt(ALPHANUMERIC.length())));
         }
-        return sb.toString();
     }
 }
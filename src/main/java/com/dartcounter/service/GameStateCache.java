@@ -0,0 +1,113 @@
+package com.dartcounter.service;
+
+import com.dartcounter.dto.GameStateDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Caches the current state of each session, both as a DTO and serialized to
+ * JSON, for reads such as polling spectator boards and resyncing clients.
+ *
+ * Entries are keyed by session version: every command invalidates the entry
+ * up to its new version, so a read that raced with the command cannot put an
+ * older state back. Least recently used entries and entries older than the
+ * TTL are dropped.
+ */
+@Component
+public class GameStateCache {
+
+    /**
+     * A session state and its JSON form; neither may be modified.
+     */
+    public record CachedState(GameStateDTO state, byte[] json) {
+
+        public long version() {
+            return versionOf(state);
+        }
+    }
+
+    // An invalidation is an entry without a state; nothing older than its version is cached
+    private record Entry(CachedState cached, long version, long createdMillis) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+
+    public GameStateCache(ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${dartcounter.state-cache.max-sessions:10000}") int maxSessions,
+                          @Value("${dartcounter.state-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSessions;
+            }
+        });
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    /**
+     * Returns the cached state of a session, loading and serializing it on a miss.
+     */
+    public CachedState get(String sessionCode, Function<String, GameStateDTO> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(sessionCode);
+        if (entry != null && entry.cached() != null && now - entry.createdMillis() < ttlMillis) {
+            hits.increment();
+            return entry.cached();
+        }
+
+        misses.increment();
+        GameStateDTO state = loader.apply(sessionCode);
+        CachedState cached = new CachedState(state, serialize(state));
+        entries.compute(sessionCode, (code, current) ->
+            current != null && current.version() > cached.version() ? current : new Entry(cached, cached.version(), now));
+        return cached;
+    }
+
+    /**
+     * Drops the cached state of a session that has just changed to the given version.
+     */
+    public void invalidate(String sessionCode, long version) {
+        entries.put(sessionCode, new Entry(null, version, System.currentTimeMillis()));
+    }
+
+    public void forget(String sessionCode) {
+        entries.remove(sessionCode.toUpperCase());
+    }
+
+    private byte[] serialize(GameStateDTO state) {
+        try {
+            return objectMapper.writeValueAsBytes(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize state of session " + state.getSessionCode(), e);
+        }
+    }
+
+    private static long versionOf(GameStateDTO state) {
+        return state.getVersion() != null ? state.getVersion() : -1;
+    }
+
+    private static Counter lookupCounter(MeterRegistry registry, String result) {
+        return Counter.builder("dartcounter.state.cache")
+            .description("Lookups of cached session states")
+            .tag("result", result)
+            .register(registry);
+    }
+}
@@ -0,0 +1,212 @@
+package com.dartcounter.service;
+
+import com.dartcounter.dto.HistoryEntryDTO;
+import com.dartcounter.entity.Dart;
+import com.dartcounter.entity.GameEvent;
+import com.dartcounter.entity.GameEventType;
+import com.dartcounter.entity.GameSession;
+import com.dartcounter.entity.GameStatus;
+import com.dartcounter.entity.Player;
+import com.dartcounter.repository.GameEventStore;
+import com.dartcounter.repository.GameSessionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Streams the event logs of sessions as NDJSON or CSV, one line per event.
+ *
+ * Sessions and their events are both read in keyset pages (by session code,
+ * then by seq), and each session is replayed from its initial state alongside
+ * to annotate throws with the player and scores. Memory use is therefore
+ * bounded by the page size, however many games are exported. Events still
+ * waiting for the write-behind flush are not included.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HistoryExporter {
+
+    @Getter
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public static Format parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Unknown export format: " + name);
+            }
+        }
+    }
+
+    private static final String CSV_HEADER = "session_code,seq,type,created_at,version,"
+        + "player_index,player,segment,multiplier,points,score_before,score_after\n";
+
+    private final GameSessionRepository sessionRepository;
+    private final GameEventStore eventStore;
+    private final ObjectMapper objectMapper;
+
+    @Value("${dartcounter.export.page-size:500}")
+    private int pageSize = 500;
+
+    public void exportSession(GameSession session, Format format, OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        writeHeader(format, buffered);
+        writeSession(session, format, buffered);
+        buffered.flush();
+    }
+
+    /**
+     * Exports every session created in [from, to), in session code order.
+     */
+    public void exportRange(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        writeHeader(format, buffered);
+
+        int exported = 0;
+        String after = "";
+        while (true) {
+            List<String> codes = sessionRepository.findSessionCodesCreatedBetween(from, to, after,
+                PageRequest.of(0, pageSize));
+            for (String code : codes) {
+                // Deleted since the page was read
+                Optional<GameSession> session = sessionRepository.findBySessionCode(code);
+                if (session.isPresent()) {
+                    writeSession(session.get(), format, buffered);
+                    exported++;
+                }
+            }
+            if (codes.size() < pageSize) {
+                break;
+            }
+            after = codes.get(codes.size() - 1);
+        }
+        buffered.flush();
+        log.info("Exported history of {} sessions created between {} and {}", exported, from, to);
+    }
+
+    private void writeSession(GameSession stored, Format format, OutputStream out) throws IOException {
+        LiveSession replica = new LiveSession(initialState(stored));
+        GameSession session = replica.getSession();
+
+        int seq = 0;
+        while (true) {
+            List<GameEvent> events = eventStore.findAfter(stored.getSessionCode(), seq, pageSize);
+            for (GameEvent event : events) {
+                HistoryEntryDTO.HistoryEntryDTOBuilder entry = HistoryEntryDTO.builder()
+                    .sessionCode(event.getSessionCode())
+                    .seq(event.getSeq())
+                    .type(event.getType().name())
+                    .createdAt(event.getCreatedAt())
+                    .version(event.getVersion());
+
+                if (event.getType() == GameEventType.THROW) {
+                    Player player = session.getCurrentPlayer();
+                    int dart = event.getDart();
+                    entry.playerIndex(session.getCurrentPlayerIndex())
+                        .player(player.getName())
+                        .segment(Dart.segment(dart))
+                        .multiplier(Dart.multiplier(dart))
+                        .points(Dart.points(dart))
+                        .scoreBefore(player.getScore());
+                    GameEngine.replay(replica, event);
+                    entry.scoreAfter(player.getScore());
+                } else {
+                    GameEngine.replay(replica, event);
+                }
+                write(entry.build(), format, out);
+            }
+            // Hand what we have to the client before reading on
+            out.flush();
+            if (events.size() < pageSize) {
+                return;
+            }
+            seq = events.get(events.size() - 1).getSeq();
+        }
+    }
+
+    /**
+     * A detached copy of the session as it was created, before its first event.
+     */
+    private static GameSession initialState(GameSession stored) {
+        GameSession session = new GameSession();
+        session.setSessionCode(stored.getSessionCode());
+        session.setStartingScore(stored.getStartingScore());
+        session.setOutMode(stored.getOutMode());
+        session.setInMode(stored.getInMode());
+        session.getMatch().setLegsPerSet(stored.getMatch().getLegsPerSet());
+        session.getMatch().setSetsToWin(stored.getMatch().getSetsToWin());
+        session.setStatus(GameStatus.WAITING);
+        session.setVersion(0L);
+        for (Player player : stored.getPlayers()) {
+            session.addPlayer(new Player(player.getName(), stored.getStartingScore(), player.getPlayerOrder()));
+        }
+        return session;
+    }
+
+    private void writeHeader(Format format, OutputStream out) throws IOException {
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void write(HistoryEntryDTO entry, Format format, OutputStream out) throws IOException {
+        if (format == Format.NDJSON) {
+            out.write(objectMapper.writeValueAsBytes(entry));
+            out.write('\n');
+            return;
+        }
+        String line = String.join(",",
+            entry.getSessionCode(),
+            String.valueOf(entry.getSeq()),
+            entry.getType(),
+            String.valueOf(entry.getCreatedAt()),
+            String.valueOf(entry.getVersion()),
+            csv(entry.getPlayerIndex()),
+            csv(entry.getPlayer()),
+            csv(entry.getSegment()),
+            csv(entry.getMultiplier()),
+            csv(entry.getPoints()),
+            csv(entry.getScoreBefore()),
+            csv(entry.getScoreAfter()));
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+
+    private static String csv(Integer value) {
+        return value != null ? value.toString() : "";
+    }
+
+    // Player names are free text
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
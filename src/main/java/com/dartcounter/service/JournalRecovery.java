@@ -0,0 +1,41 @@
+package com.dartcounter.service;
+
+import com.dartcounter.entity.GameStatus;
+import com.dartcounter.repository.GameEventJournal;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings the games in progress found in the event journal back into memory on
+ * startup, replaying the events recorded after each session's last snapshot.
+ * Other sessions are loaded when they are next used.
+ */
+@Component
+@ConditionalOnProperty(name = "dartcounter.event-store", havingValue = "journal")
+@RequiredArgsConstructor
+@Slf4j
+public class JournalRecovery {
+
+    private final GameEventJournal journal;
+    private final LiveSessionRegistry liveSessions;
+
+    @PostConstruct
+    public void recoverSessions() {
+        int recovered = 0;
+        for (String code : journal.sessionCodes()) {
+            try {
+                // The snapshot row may predate the start or the end of the game, so the replayed state decides
+                if (liveSessions.acquireIf(code, live -> live.getSession().getStatus() == GameStatus.ACTIVE) != null) {
+                    recovered++;
+                }
+            } catch (IllegalArgumentException e) {
+                // Deleted from the database but not yet from the journal
+                log.warn("Skipping journaled events of unknown session {}", code);
+            }
+        }
+        log.info("Recovered {} games in progress from the event journal", recovered);
+    }
+}
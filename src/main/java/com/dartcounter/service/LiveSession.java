@@ -0,0 +1,192 @@
+package com.dartcounter.service;
+
+import com.dartcounter.entity.GameEvent;
+import com.dartcounter.entity.GameEventType;
+import com.dartcounter.entity.GameSession;
+import com.dartcounter.entity.Player;
+import com.dartcounter.entity.PlayerStats;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A game session held resident in memory. Its state is derived from the
+ * session's event log: the last snapshot plus every event after it. Commands
+ * mutate the detached {@link GameSession} graph through {@link GameEngine} and
+ * append events, which {@link WriteBehindFlusher} writes out later.
+ *
+ * Undo works from an in-memory stack of packed frames, one per throw, so any
+ * number of undos up to {@link #MAX_UNDO_DEPTH} costs O(1) each.
+ *
+ * All mutable state is guarded by {@link #getLock()}.
+ */
+@Getter
+public class LiveSession {
+
+    // Oldest frames are dropped beyond this; far more than a leg needs
+    static final int MAX_UNDO_DEPTH = 1024;
+
+    private final GameSession session;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Ring buffer of undo frames, see GameEngine for the layout
+    private final long[] undoFrames = new long[MAX_UNDO_DEPTH];
+    private int undoTop;
+    private int undoDepth;
+
+    // Events appended since the last flush
+    private final List<GameEvent> pendingEvents = new ArrayList<>();
+
+    // Last event in the log, and the last one covered by the persisted snapshot
+    private int eventSeq;
+    private int snapshotSeq;
+
+    // Player state as of the last snapshot, used to skip unchanged rows
+    private final int[] flushedScores;
+    private final int[] flushedCurrentThrows;
+    private final PlayerStats[] flushedStats;
+    private final int[] flushedLegsWon;
+    private final int[] flushedSetsWon;
+
+    private boolean dirty;
+    private boolean evicted;
+    private volatile long lastAccessMillis;
+
+    public LiveSession(GameSession session) {
+        this.session = session;
+        this.eventSeq = session.getSnapshotSeq();
+        this.snapshotSeq = session.getSnapshotSeq();
+        int playerCount = session.getPlayers().size();
+        this.flushedScores = new int[playerCount];
+        this.flushedCurrentThrows = new int[playerCount];
+        this.flushedStats = new PlayerStats[playerCount];
+        this.flushedLegsWon = new int[playerCount];
+        this.flushedSetsWon = new int[playerCount];
+        restoreUndoFrames(session.getUndoFrames());
+        snapshotPlayers();
+        touch();
+    }
+
+    public String getSessionCode() {
+        return session.getSessionCode();
+    }
+
+    public void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Records a state change: bumps the version the clients see and schedules a flush.
+     */
+    public void markDirty() {
+        session.setVersion(session.getVersion() + 1);
+        session.setUpdatedAt(LocalDateTime.now());
+        dirty = true;
+    }
+
+    /**
+     * Appends an event for the command just applied, at the current version.
+     */
+    public void append(GameEventType type, int dart) {
+        Short packed = type == GameEventType.THROW ? (short) dart : null;
+        pendingEvents.add(new GameEvent(getSessionCode(), ++eventSeq, type, packed, session.getVersion()));
+    }
+
+    /**
+     * Advances past an event read back from the log.
+     */
+    void replayed(GameEvent event) {
+        eventSeq = event.getSeq();
+        session.setVersion(event.getVersion());
+        session.setUpdatedAt(event.getCreatedAt());
+    }
+
+    void pushUndoFrame(long frame) {
+        undoTop = (undoTop + 1) % MAX_UNDO_DEPTH;
+        undoFrames[undoTop] = frame;
+        undoDepth = Math.min(undoDepth + 1, MAX_UNDO_DEPTH);
+    }
+
+    /**
+     * Removes and returns the newest undo frame; only valid if {@link #getUndoDepth()} is positive.
+     */
+    long popUndoFrame() {
+        long frame = undoFrames[undoTop];
+        undoTop = (undoTop + MAX_UNDO_DEPTH - 1) % MAX_UNDO_DEPTH;
+        undoDepth--;
+        return frame;
+    }
+
+    void clearUndoFrames() {
+        undoDepth = 0;
+    }
+
+    /**
+     * The undo stack, oldest frame first, as stored with a snapshot.
+     */
+    byte[] encodeUndoFrames() {
+        ByteBuffer buffer = ByteBuffer.allocate(undoDepth * Long.BYTES);
+        for (int i = undoDepth - 1; i >= 0; i--) {
+            buffer.putLong(undoFrames[(undoTop - i + MAX_UNDO_DEPTH) % MAX_UNDO_DEPTH]);
+        }
+        return buffer.array();
+    }
+
+    public boolean isSnapshotDue(int interval) {
+        return eventSeq - snapshotSeq >= interval;
+    }
+
+    public boolean isPlayerChanged(int index) {
+        Player player = session.getPlayers().get(index);
+        return player.getScore() != flushedScores[index]
+            || player.getCurrentThrow() != flushedCurrentThrows[index]
+            || !player.getStats().equals(flushedStats[index])
+            || player.getLegsWon() != flushedLegsWon[index]
+            || player.getSetsWon() != flushedSetsWon[index];
+    }
+
+    /**
+     * Drops the pending events once the event store has them; the session stays dirty.
+     */
+    void markAppended() {
+        pendingEvents.clear();
+    }
+
+    void markFlushed(boolean snapshotTaken) {
+        pendingEvents.clear();
+        dirty = false;
+        if (snapshotTaken) {
+            snapshotSeq = eventSeq;
+            snapshotPlayers();
+        }
+    }
+
+    void markEvicted() {
+        evicted = true;
+    }
+
+    private void restoreUndoFrames(byte[] encoded) {
+        if (encoded == null) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        while (buffer.remaining() >= Long.BYTES) {
+            pushUndoFrame(buffer.getLong());
+        }
+    }
+
+    private void snapshotPlayers() {
+        List<Player> players = session.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            flushedScores[i] = players.get(i).getScore();
+            flushedCurrentThrows[i] = players.get(i).getCurrentThrow();
+            flushedStats[i] = players.get(i).getStats().copy();
+            flushedLegsWon[i] = players.get(i).getLegsWon();
+            flushedSetsWon[i] = players.get(i).getSetsWon();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.dartcounter.service;
+
+import com.dartcounter.entity.GameEvent;
+import com.dartcounter.entity.GameSession;
+import com.dartcounter.repository.GameEventStore;
+import com.dartcounter.repository.GameSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the sessions that are currently being played resident in memory,
+ * so that game commands do not have to reload the aggregate from the database.
+ *
+ * A session is loaded from its last snapshot, then brought up to date by
+ * replaying the events logged after it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LiveSessionRegistry {
+
+    private final GameSessionRepository sessionRepository;
+    private final GameEventStore eventStore;
+
+    private final Map<String, LiveSession> sessions = new ConcurrentHashMap<>();
+
+    // Sessions whose rows are being deleted; they cannot become resident meanwhile
+    private final Set<String> deleting = ConcurrentHashMap.newKeySet();
+    // Bumped when a deletion starts and ends, so a load that overlapped one is not trusted
+    private final AtomicLong deletions = new AtomicLong();
+
+    /**
+     * Returns the resident session, loading it from the database on first use.
+     */
+    public LiveSession acquire(String sessionCode) {
+        return acquire(sessionCode, live -> true);
+    }
+
+    /**
+     * Like {@link #acquire}, but a session that is not resident yet only becomes
+     * resident if its rebuilt state passes the test. Returns null otherwise.
+     */
+    public LiveSession acquireIf(String sessionCode, Predicate<LiveSession> condition) {
+        return acquire(sessionCode, condition);
+    }
+
+    private LiveSession acquire(String sessionCode, Predicate<LiveSession> condition) {
+        String code = sessionCode.toUpperCase();
+        while (true) {
+            LiveSession live = sessions.get(code);
+            if (live != null) {
+                live.touch();
+                return live;
+            }
+
+            long deletionsBefore = deletions.get();
+            LiveSession loaded = load(code);
+            if (!condition.test(loaded)) {
+                return null;
+            }
+            LiveSession registered = sessions.compute(code, (key, current) -> {
+                if (current != null) {
+                    return current;
+                }
+                return deleting.contains(key) || deletions.get() != deletionsBefore ? null : loaded;
+            });
+            if (registered == loaded) {
+                log.debug("Session {} is now resident", code);
+                return loaded;
+            }
+            if (registered != null) {
+                registered.touch();
+                return registered;
+            }
+            if (deleting.contains(code)) {
+                throw new IllegalArgumentException("Session not found: " + sessionCode);
+            }
+            // A deletion ran while loading and may have removed this session; load it again
+        }
+    }
+
+    /**
+     * Marks sessions for deletion and returns those among them that are not
+     * resident. Until {@link #releaseDeleted} is called these cannot become
+     * resident, so their rows can be deleted without a command bringing one
+     * back from a read made just before.
+     */
+    public List<String> reserveForDeletion(Collection<String> sessionCodes) {
+        deletions.incrementAndGet();
+        List<String> reserved = new ArrayList<>();
+        for (String code : sessionCodes) {
+            // Checked and marked under the map's lock for this code, like a registration
+            sessions.compute(code, (key, live) -> {
+                if (live == null) {
+                    deleting.add(key);
+                    reserved.add(key);
+                }
+                return live;
+            });
+        }
+        return reserved;
+    }
+
+    /**
+     * Ends the deletion of sessions reserved with {@link #reserveForDeletion}.
+     */
+    public void releaseDeleted(Collection<String> sessionCodes) {
+        deletions.incrementAndGet();
+        deleting.removeAll(sessionCodes);
+    }
+
+    /**
+     * Rebuilds a session from its snapshot and event log without making it resident.
+     */
+    public LiveSession load(String sessionCode) {
+        String code = sessionCode.toUpperCase();
+        GameSession session = sessionRepository.findBySessionCode(code)
+            .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionCode));
+
+        LiveSession live = new LiveSession(session);
+        List<GameEvent> events = eventStore.findAfter(code, session.getSnapshotSeq());
+        for (GameEvent event : events) {
+            GameEngine.replay(live, event);
+        }
+        if (!events.isEmpty()) {
+            log.debug("Replayed {} events for session {}", events.size(), code);
+        }
+        return live;
+    }
+
+    /**
+     * Returns the resident session, or null if it is not loaded.
+     */
+    public LiveSession peek(String sessionCode) {
+        return sessions.get(sessionCode.toUpperCase());
+    }
+
+    public Collection<LiveSession> all() {
+        return sessions.values();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Drops a session from memory. Must be called with the session lock held.
+     */
+    public void evict(LiveSession live) {
+        live.markEvicted();
+        sessions.remove(live.getSessionCode(), live);
+        log.debug("Session {} evicted", live.getSessionCode());
+    }
+}
@@ -0,0 +1,7 @@
+package com.dartcounter.service;
+
+/**
+ * Published when the match session of a tournament has been won.
+ */
+public record MatchFinishedEvent(String tournamentCode, String sessionCode, String winnerName) {
+}
@@ -0,0 +1,82 @@
+package com.dartcounter.service;
+
+import com.dartcounter.entity.Dart;
+import com.dartcounter.entity.InMode;
+import com.dartcounter.entity.OutMode;
+
+/**
+ * The in and out rules of a session as lookup tables indexed by packed
+ * {@link Dart}. One shared instance exists per combination of modes, so
+ * evaluating a dart is a few array reads whatever rules are in play.
+ */
+public final class ScoringRules {
+
+    private static final ScoringRules[][] RULES = new ScoringRules[OutMode.values().length][InMode.values().length];
+
+    static {
+        for (OutMode out : OutMode.values()) {
+            for (InMode in : InMode.values()) {
+                RULES[out.ordinal()][in.ordinal()] = new ScoringRules(out, in);
+            }
+        }
+    }
+
+    private final boolean[] opens = new boolean[Dart.LIMIT];
+    private final boolean[] finishes = new boolean[Dart.LIMIT];
+    // Scores a single dart can finish, indexed by score
+    private final boolean[] oneDartFinishes = new boolean[61];
+    // Lowest score that can be left standing; anything below, other than zero, is a bust
+    private final int minLeave;
+
+    private ScoringRules(OutMode out, InMode in) {
+        for (int dart = 0; dart < Dart.LIMIT; dart++) {
+            if (!Dart.isValid(dart) || dart == Dart.MISS) {
+                continue;
+            }
+            int multiplier = Dart.multiplier(dart);
+            opens[dart] = in == InMode.STRAIGHT || multiplier == 2;
+            finishes[dart] = switch (out) {
+                case SINGLE -> true;
+                case DOUBLE -> multiplier == 2;
+                case TRIPLE -> multiplier == 3;
+                case MASTER -> multiplier >= 2;
+            };
+            if (finishes[dart]) {
+                oneDartFinishes[Dart.points(dart)] = true;
+            }
+        }
+        this.minLeave = switch (out) {
+            case SINGLE -> 1;
+            case DOUBLE, MASTER -> 2;
+            case TRIPLE -> 3;
+        };
+    }
+
+    public static ScoringRules of(OutMode out, InMode in) {
+        return RULES[out.ordinal()][in.ordinal()];
+    }
+
+    /**
+     * Whether this dart starts a player's scoring.
+     */
+    public boolean opens(int dart) {
+        return opens[dart];
+    }
+
+    /**
+     * Whether a single dart can finish from {@code remaining}.
+     */
+    public boolean isOneDartFinish(int remaining) {
+        return remaining >= 0 && remaining < oneDartFinishes.length && oneDartFinishes[remaining];
+    }
+
+    /**
+     * Whether leaving {@code remaining} after this dart busts the visit.
+     */
+    public boolean isBust(int remaining, int dart) {
+        if (remaining == 0) {
+            return !finishes[dart];
+        }
+        return remaining < minLeave;
+    }
+}
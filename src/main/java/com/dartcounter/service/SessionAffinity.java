@@ -0,0 +1,71 @@
+package com.dartcounter.service;
+
+import com.dartcounter.config.BrokerProperties;
+import com.dartcounter.config.ClusterProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Decides which node owns a session, using rendezvous hashing over the
+ * configured node ids. Only the owner keeps the session resident and applies
+ * its commands; broadcasts reach subscribers on every node through the broker relay.
+ */
+@Component
+public class SessionAffinity {
+
+    private static final String COMMAND_QUEUE_PREFIX = "/queue/dartcounter-node-";
+
+    private final String nodeId;
+    private final List<String> nodes;
+
+    public SessionAffinity(BrokerProperties broker, ClusterProperties cluster) {
+        this.nodeId = cluster.getNodeId();
+        // Without a relay there is nobody to forward to
+        this.nodes = broker.isRelay() ? List.copyOf(cluster.getNodes()) : List.of();
+    }
+
+    public boolean isClustered() {
+        return nodes.size() > 1;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String ownerOf(String sessionCode) {
+        if (!isClustered()) {
+            return nodeId;
+        }
+
+        String code = sessionCode.toUpperCase();
+        String owner = null;
+        long bestScore = Long.MIN_VALUE;
+        for (String node : nodes) {
+            long score = mix((code + '/' + node).hashCode());
+            if (score > bestScore) {
+                bestScore = score;
+                owner = node;
+            }
+        }
+        return owner;
+    }
+
+    public boolean isLocal(String sessionCode) {
+        return nodeId.equals(ownerOf(sessionCode));
+    }
+
+    public static String commandDestination(String node) {
+        return COMMAND_QUEUE_PREFIX + node;
+    }
+
+    // Murmur3 finalizer, spreads String.hashCode over the long range
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,173 @@
+package com.dartcounter.service;
+
+import com.dartcounter.entity.SessionCodeCounter;
+import com.dartcounter.repository.SessionCodeCounterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out unique session codes without a database lookup per code.
+ *
+ * A 30-bit counter is mapped onto the 32^6 code space by a keyed Feistel
+ * permutation, so consecutive counter values give unrelated looking but
+ * never repeating codes. Each node reserves a block of counter values at a time
+ * from {@link SessionCodeCounter}. Codes of expired sessions are reused first.
+ */
+@Component
+@Slf4j
+public class SessionCodeAllocator {
+
+    private static final String ALPHANUMERIC = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+    private static final int CODE_LENGTH = 6;
+    private static final int CODE_BITS = 30; // 32^6 = 2^30
+    private static final int HALF_BITS = CODE_BITS / 2;
+    private static final int HALF_MASK = (1 << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+
+    static final int BLOCK_SIZE = 4096;
+    private static final long MAX_BLOCKS = (1L << CODE_BITS) / BLOCK_SIZE;
+    private static final int MAX_RECYCLED = 10_000;
+
+    private final SessionCodeCounterRepository counterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int[] roundKeys = new int[ROUNDS];
+
+    private final AtomicReference<Block> block = new AtomicReference<>(Block.EXHAUSTED);
+    private final Queue<String> recycled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger recycledCount = new AtomicInteger();
+
+    /**
+     * @param key permutation key; must be identical on all nodes and never change,
+     *            otherwise codes from different keys may collide
+     */
+    public SessionCodeAllocator(SessionCodeCounterRepository counterRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${dartcounter.session.code-key:dartcounter}") String key) {
+        this.counterRepository = counterRepository;
+        this.transactionTemplate = transactionTemplate;
+
+        int seed = 0x2545F491;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            seed = mix(seed ^ b);
+        }
+        for (int i = 0; i < ROUNDS; i++) {
+            seed = mix(seed + i);
+            roundKeys[i] = seed;
+        }
+    }
+
+    public String nextCode() {
+        String reused = recycled.poll();
+        if (reused != null) {
+            recycledCount.decrementAndGet();
+            return reused;
+        }
+        return encode(permute(nextCounter()));
+    }
+
+    /**
+     * Makes the codes of deleted sessions available again.
+     */
+    public void recycle(Collection<String> codes) {
+        for (String code : codes) {
+            if (recycledCount.incrementAndGet() > MAX_RECYCLED) {
+                recycledCount.decrementAndGet();
+                return;
+            }
+            recycled.offer(code);
+        }
+    }
+
+    private int nextCounter() {
+        while (true) {
+            Block current = block.get();
+            long value = current.next.getAndIncrement();
+            if (value < current.end) {
+                return (int) value;
+            }
+            refill(current);
+        }
+    }
+
+    // Only one thread reserves a new block; the others retry on the fresh one
+    private synchronized void refill(Block exhausted) {
+        if (block.get() != exhausted) {
+            return;
+        }
+        long reserved = reserveBlock();
+        if (reserved >= MAX_BLOCKS) {
+            throw new IllegalStateException("Session code space exhausted");
+        }
+        block.set(new Block(reserved * BLOCK_SIZE, (reserved + 1) * BLOCK_SIZE));
+        log.debug("Reserved session code block {}", reserved);
+    }
+
+    private long reserveBlock() {
+        try {
+            return transactionTemplate.execute(status -> {
+                if (counterRepository.incrementNextBlock(SessionCodeCounter.SINGLETON_ID) == 0) {
+                    counterRepository.saveAndFlush(new SessionCodeCounter(SessionCodeCounter.SINGLETON_ID, 1L));
+                    return 0L;
+                }
+                return counterRepository.findById(SessionCodeCounter.SINGLETON_ID)
+                    .orElseThrow()
+                    .getNextBlock() - 1;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the counter row first
+            return reserveBlock();
+        }
+    }
+
+    private int permute(int value) {
+        int left = value >>> HALF_BITS;
+        int right = value & HALF_MASK;
+        for (int round = 0; round < ROUNDS; round++) {
+            int next = left ^ (mix(right ^ roundKeys[round]) & HALF_MASK);
+            left = right;
+            right = next;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static String encode(int value) {
+        char[] chars = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHANUMERIC.charAt(value & 31);
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B1;
+        h ^= h >>> 15;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static final class Block {
+
+        static final Block EXHAUSTED = new Block(0, 0);
+
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
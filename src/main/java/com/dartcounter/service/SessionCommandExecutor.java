@@ -0,0 +1,82 @@
+package com.dartcounter.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs game commands off the STOMP inbound threads, one mailbox per session.
+ *
+ * Commands for the same session run strictly in submission order; commands for
+ * different sessions run in parallel on virtual threads, so a slow database
+ * round-trip for one board never holds up message dispatch for the others.
+ */
+@Component
+@Slf4j
+public class SessionCommandExecutor {
+
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Last queued command per session; removed again once the mailbox drains
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    /**
+     * Queues a command on the session's mailbox. The outcome handler runs in the
+     * command's slot too, before the next command starts, so whatever it sends
+     * goes out in command order. The returned future completes after the handler.
+     */
+    public <T> CompletableFuture<T> submit(String sessionCode, Supplier<T> command,
+                                           BiConsumer<? super T, ? super Throwable> outcome) {
+        String code = sessionCode.toUpperCase();
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        CompletableFuture<Void> tail = tails.compute(code, (key, previous) -> {
+            CompletableFuture<Void> after = previous != null ? previous : CompletableFuture.completedFuture(null);
+            return after.thenRunAsync(() -> run(code, command, outcome, result), virtualThreads);
+        });
+        tail.whenComplete((ignored, error) -> tails.remove(code, tail));
+
+        return result;
+    }
+
+    public int pendingMailboxes() {
+        return tails.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        virtualThreads.shutdown();
+        log.info("Command executor stopped with {} active mailboxes", tails.size());
+    }
+
+    private static <T> void run(String code, Supplier<T> command, BiConsumer<? super T, ? super Throwable> outcome,
+                                CompletableFuture<T> result) {
+        T value = null;
+        Throwable error = null;
+        try {
+            value = command.get();
+        } catch (Throwable e) {
+            error = e;
+        }
+
+        try {
+            outcome.accept(value, error);
+        } catch (RuntimeException e) {
+            log.error("Failed to handle the outcome of a command for session {}: {}", code, e.getMessage(), e);
+        }
+
+        if (error == null) {
+            result.complete(value);
+        } else {
+            result.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.dartcounter.service;
+
+import com.dartcounter.repository.GameEventStore;
+import com.dartcounter.repository.GameSessionRepository;
+import com.dartcounter.repository.PlayerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes sessions that have not been updated for dartcounter.session.expiry-minutes.
+ * Each node only sweeps the sessions it owns, since only the owner knows
+ * whether a session is still resident.
+ *
+ * Works in bounded batches of session codes and removes events, players and
+ * sessions with bulk deletes, without loading any entities.
+ */
+@Component
+@Slf4j
+public class SessionExpirySweeper {
+
+    private final GameSessionRepository sessionRepository;
+    private final PlayerRepository playerRepository;
+    private final GameEventStore eventStore;
+    private final LiveSessionRegistry liveSessions;
+    private final SessionAffinity affinity;
+    private final StateDeltaTracker deltaTracker;
+    private final GameStateCache stateCache;
+    private final SessionCodeAllocator codeAllocator;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter sessionsReclaimed;
+    private final Counter eventRowsReclaimed;
+    private final Counter playerRowsReclaimed;
+    private final Timer sweepDuration;
+
+    @Value("${dartcounter.session.expiry-minutes:120}")
+    private long expiryMinutes;
+
+    @Value("${dartcounter.session.sweep-batch-size:500}")
+    private int batchSize;
+
+    public SessionExpirySweeper(GameSessionRepository sessionRepository,
+                                PlayerRepository playerRepository,
+                                GameEventStore eventStore,
+                                LiveSessionRegistry liveSessions,
+                                SessionAffinity affinity,
+                                StateDeltaTracker deltaTracker,
+                                GameStateCache stateCache,
+                                SessionCodeAllocator codeAllocator,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry) {
+        this.sessionRepository = sessionRepository;
+        this.playerRepository = playerRepository;
+        this.eventStore = eventStore;
+        this.liveSessions = liveSessions;
+        this.affinity = affinity;
+        this.deltaTracker = deltaTracker;
+        this.stateCache = stateCache;
+        this.codeAllocator = codeAllocator;
+        this.transactionTemplate = transactionTemplate;
+
+        this.sessionsReclaimed = reclaimedCounter(meterRegistry, "game_sessions");
+        this.eventRowsReclaimed = reclaimedCounter(meterRegistry, "game_events");
+        this.playerRowsReclaimed = reclaimedCounter(meterRegistry, "players");
+        this.sweepDuration = Timer.builder("dartcounter.sweeper.duration")
+            .description("Time spent deleting expired sessions")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${dartcounter.session.sweep-interval-ms:60000}",
+               initialDelayString = "${dartcounter.session.sweep-interval-ms:60000}")
+    public void sweepExpiredSessions() {
+        sweepDuration.record(this::sweep);
+    }
+
+    private void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(expiryMinutes);
+        int total = 0;
+        String after = "";
+
+        while (true) {
+            List<String> codes = sessionRepository.findExpiredSessionCodes(cutoff, after, PageRequest.of(0, batchSize));
+
+            // Other nodes' sessions are theirs to judge. Resident sessions are in use;
+            // their row is just behind the write-behind window
+            List<String> owned = codes.stream()
+                .filter(affinity::isLocal)
+                .toList();
+            if (!owned.isEmpty()) {
+                List<String> expired = liveSessions.reserveForDeletion(owned);
+                if (!expired.isEmpty()) {
+                    deleteBatch(expired);
+                    total += expired.size();
+                }
+            }
+
+            if (codes.size() < batchSize) {
+                break;
+            }
+            after = codes.get(codes.size() - 1);
+        }
+
+        if (total > 0) {
+            log.info("Expired {} sessions not updated since {}", total, cutoff);
+        }
+    }
+
+    // The codes must be reserved for deletion; they are released before being recycled
+    private void deleteBatch(List<String> codes) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                eventRowsReclaimed.increment(eventStore.deleteSessions(codes));
+                playerRowsReclaimed.increment(playerRepository.deleteAllForSessions(codes));
+                sessionsReclaimed.increment(sessionRepository.deleteAllBySessionCodes(codes));
+            });
+        } finally {
+            liveSessions.releaseDeleted(codes);
+        }
+        codes.forEach(deltaTracker::forget);
+        codes.forEach(stateCache::forget);
+        codeAllocator.recycle(codes);
+    }
+
+    private static Counter reclaimedCounter(MeterRegistry registry, String table) {
+        return Counter.builder("dartcounter.sweeper.rows.reclaimed")
+            .description("Rows deleted by the session expiry sweeper")
+            .tag("table", table)
+            .register(registry);
+    }
+}
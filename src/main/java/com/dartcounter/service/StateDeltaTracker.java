@@ -0,0 +1,88 @@
+package com.dartcounter.service;
+
+import com.dartcounter.dto.GameStateDTO;
+import com.dartcounter.dto.GameStateDelta;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the last few broadcast states of each session so that updates can be
+ * sent as {@link GameStateDelta}s instead of full snapshots.
+ */
+@Component
+public class StateDeltaTracker {
+
+    static final int SNAPSHOTS_PER_SESSION = 32;
+    private static final int MAX_TRACKED_SESSIONS = 10_000;
+
+    // Least recently used sessions are dropped first
+    private final Map<String, Deque<GameStateDTO>> snapshots = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deque<GameStateDTO>> eldest) {
+                return size() > MAX_TRACKED_SESSIONS;
+            }
+        });
+
+    /**
+     * Records a state that is about to be broadcast and returns the payload to send:
+     * a delta from the previously broadcast version, or the full state if there is none.
+     */
+    public Object nextBroadcast(GameStateDTO state) {
+        if (state.getVersion() == null) {
+            return state;
+        }
+
+        Deque<GameStateDTO> history = snapshots.computeIfAbsent(state.getSessionCode(), code -> new ArrayDeque<>());
+        synchronized (history) {
+            GameStateDTO previous = history.peekFirst();
+            if (previous != null && previous.getVersion() >= state.getVersion()) {
+                return state;
+            }
+
+            history.addFirst(state);
+            if (history.size() > SNAPSHOTS_PER_SESSION) {
+                history.removeLast();
+            }
+
+            if (previous == null) {
+                return state;
+            }
+            GameStateDelta delta = GameStateDelta.between(previous, state);
+            return delta != null ? delta : state;
+        }
+    }
+
+    /**
+     * Returns the changes from a client's version to the current state, or the
+     * full state if that version is no longer known.
+     */
+    public Object since(GameStateDTO current, Long fromVersion) {
+        if (fromVersion == null || current.getVersion() == null || fromVersion > current.getVersion()) {
+            return current;
+        }
+
+        Deque<GameStateDTO> history = snapshots.get(current.getSessionCode());
+        if (history == null) {
+            return current;
+        }
+        synchronized (history) {
+            for (GameStateDTO snapshot : history) {
+                if (snapshot.getVersion().equals(fromVersion)) {
+                    GameStateDelta delta = GameStateDelta.between(snapshot, current);
+                    return delta != null ? delta : current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public void forget(String sessionCode) {
+        snapshots.remove(sessionCode.toUpperCase());
+    }
+}
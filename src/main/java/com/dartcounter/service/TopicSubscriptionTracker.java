@@ -0,0 +1,77 @@
+package com.dartcounter.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the STOMP clients connected to this node per subscribed destination.
+ * In relay mode the broker does the fan-out, so these are local clients only.
+ */
+@Component
+public class TopicSubscriptionTracker {
+
+    // STOMP session id -> subscription id -> destination
+    private final Map<String, Map<String, String>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+
+    public int subscribers(String destination) {
+        AtomicInteger count = subscribers.get(destination);
+        return count != null ? count.get() : 0;
+    }
+
+    public int total() {
+        return total.get();
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        // The event carries the subscription as the client sent it
+        String destination = WireFormat.subscriptionDestination(headers.getDestination(), headers.getContentType());
+        if (headers.getSessionId() == null || headers.getSubscriptionId() == null || destination == null) {
+            return;
+        }
+        String previous = subscriptions.computeIfAbsent(headers.getSessionId(), id -> new ConcurrentHashMap<>())
+            .put(headers.getSubscriptionId(), destination);
+        if (previous != null) {
+            decrement(previous);
+        }
+        subscribers.computeIfAbsent(destination, d -> new AtomicInteger()).incrementAndGet();
+        total.incrementAndGet();
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> bySubscription = headers.getSessionId() != null
+            ? subscriptions.get(headers.getSessionId()) : null;
+        if (bySubscription != null && headers.getSubscriptionId() != null) {
+            String destination = bySubscription.remove(headers.getSubscriptionId());
+            if (destination != null) {
+                decrement(destination);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> bySubscription = subscriptions.remove(event.getSessionId());
+        if (bySubscription != null) {
+            bySubscription.values().forEach(this::decrement);
+        }
+    }
+
+    private void decrement(String destination) {
+        total.decrementAndGet();
+        subscribers.computeIfPresent(destination, (d, count) -> count.decrementAndGet() > 0 ? count : null);
+    }
+}
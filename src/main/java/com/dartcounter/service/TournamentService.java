@@ -0,0 +1,469 @@
+package com.dartcounter.service;
+
+import com.dartcounter.dto.CreateSessionRequest;
+import com.dartcounter.dto.CreateTournamentRequest;
+import com.dartcounter.dto.GameCommand;
+import com.dartcounter.dto.GameStateDTO;
+import com.dartcounter.dto.TournamentDTO;
+import com.dartcounter.entity.GameSession;
+import com.dartcounter.entity.GameStatus;
+import com.dartcounter.entity.Tournament;
+import com.dartcounter.entity.TournamentBoard;
+import com.dartcounter.entity.TournamentMatch;
+import com.dartcounter.entity.TournamentMatchStatus;
+import com.dartcounter.entity.TournamentStatus;
+import com.dartcounter.repository.TournamentBoardRepository;
+import com.dartcounter.repository.TournamentMatchRepository;
+import com.dartcounter.repository.TournamentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs single-elimination tournaments: creates the bracket together with the
+ * sessions of the first matches, moves winners on as their sessions finish,
+ * and hands free boards to the matches that are ready.
+ *
+ * Results are processed in parallel on virtual threads. They coordinate only
+ * through conditional updates of the rows a result touches (the match, the
+ * next match and a board), never through a lock on the tournament, so any
+ * number of boards can finish at once, on any node.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TournamentService {
+
+    // Callers racing for a board pick among this many candidates rather than all the first one
+    private static final int CLAIM_CANDIDATES = 16;
+
+    private final TournamentRepository tournamentRepository;
+    private final TournamentMatchRepository matchRepository;
+    private final TournamentBoardRepository boardRepository;
+    private final GameSessionService sessionService;
+    private final GameCommandDispatcher dispatcher;
+    private final SessionCodeAllocator codeAllocator;
+    private final SessionAffinity affinity;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${dartcounter.tournament.start-timeout-ms:60000}")
+    private long startTimeoutMs;
+
+    /**
+     * Creates the bracket and starts a match on every board. The sessions of
+     * those matches are inserted as one batch and started in parallel.
+     */
+    public TournamentDTO createTournament(CreateTournamentRequest request) {
+        List<String> names = request.getPlayerNames();
+        if (new HashSet<>(names).size() < names.size()) {
+            throw new IllegalStateException("Player names must be unique");
+        }
+
+        Tournament tournament = new Tournament();
+        tournament.setCode(codeAllocator.nextCode());
+        tournament.setName(request.getName());
+        tournament.setStartingScore(request.getStartingScore());
+        tournament.setOutMode(request.getOutMode());
+        tournament.setInMode(request.getInMode());
+        tournament.setLegsPerSet(request.getLegsPerSet());
+        tournament.setSetsToWin(request.getSetsToWin());
+        tournament.setBoards(request.getBoards());
+        tournament.setRounds(32 - Integer.numberOfLeadingZeros(names.size() - 1));
+        String code = tournament.getCode();
+
+        List<TournamentMatch> matches = bracket(code, names, tournament.getRounds());
+        List<TournamentMatch> starting = matches.stream()
+            .filter(match -> match.getStatus() == TournamentMatchStatus.READY)
+            .limit(request.getBoards())
+            .toList();
+        List<GameSession> sessions = sessionService.createSessions(
+            starting.stream().map(match -> sessionRequest(tournament, match)).toList(), code);
+
+        List<TournamentBoard> boards = new ArrayList<>(request.getBoards());
+        for (int number = 1; number <= request.getBoards(); number++) {
+            boards.add(new TournamentBoard(code, number));
+        }
+        for (int i = 0; i < starting.size(); i++) {
+            TournamentMatch match = starting.get(i);
+            match.setStatus(TournamentMatchStatus.PLAYING);
+            match.setBoard(boards.get(i).getNumber());
+            match.setSessionCode(sessions.get(i).getSessionCode());
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            tournamentRepository.save(tournament);
+            // Ids are drawn from the sequence on persist, before the inserts are flushed
+            matchRepository.saveAll(matches);
+            for (int i = 0; i < starting.size(); i++) {
+                boards.get(i).setMatchId(starting.get(i).getId());
+            }
+            boardRepository.saveAll(boards);
+        });
+
+        for (GameSession session : sessions) {
+            startSession(session.getSessionCode());
+        }
+        log.info("Created tournament {} with {} players in {} rounds, {} matches started",
+            code, names.size(), tournament.getRounds(), starting.size());
+        return TournamentDTO.from(tournament, matches);
+    }
+
+    public TournamentDTO getTournament(String code) {
+        Tournament tournament = tournamentRepository.findById(code.toUpperCase())
+            .orElseThrow(() -> new IllegalArgumentException("Tournament not found: " + code));
+        return TournamentDTO.from(tournament,
+            matchRepository.findByTournamentCodeOrderByRoundAscPositionAsc(tournament.getCode()));
+    }
+
+    /**
+     * Published with the lock of the finished session held, so the bracket is
+     * moved on from a virtual thread of its own.
+     */
+    @EventListener
+    public void onMatchFinished(MatchFinishedEvent event) {
+        virtualThreads.execute(() -> {
+            try {
+                recordResult(event.tournamentCode(), event.sessionCode(), event.winnerName());
+            } catch (RuntimeException e) {
+                log.error("Failed to record the result of session {} in tournament {}: {}",
+                    event.sessionCode(), event.tournamentCode(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Records the winner of a match session, frees its board and moves the
+     * winner on, all in one transaction, so a result is either fully applied
+     * or not at all. Only the first call for a result has any effect.
+     */
+    public void recordResult(String tournamentCode, String sessionCode, String winner) {
+        TournamentMatch match = matchRepository.findByTournamentCodeAndSessionCode(tournamentCode, sessionCode)
+            .orElse(null);
+        if (match == null) {
+            log.warn("Session {} is not a match of tournament {}", sessionCode, tournamentCode);
+            return;
+        }
+        Tournament tournament = tournamentRepository.findById(tournamentCode).orElseThrow();
+        boolean last = match.getRound() == tournament.getRounds() - 1;
+
+        boolean recorded = transactionTemplate.execute(status -> {
+            if (matchRepository.recordWinner(match.getId(), winner) == 0) {
+                return false;
+            }
+            boardRepository.release(tournamentCode, match.getBoard(), match.getId());
+            if (last) {
+                tournamentRepository.finish(tournamentCode, winner);
+            } else {
+                advance(match, winner);
+            }
+            return true;
+        });
+        if (!recorded) {
+            return;
+        }
+
+        log.info("{} won match {}/{} of tournament {}", winner, match.getRound(), match.getPosition(), tournamentCode);
+        if (last) {
+            log.info("{} won tournament {}", winner, tournamentCode);
+        } else {
+            assignBoards(tournament);
+        }
+    }
+
+    /**
+     * Catches up on results whose event was lost, for instance because the node
+     * that applied the winning dart went down before handling it, on finished
+     * matches whose winner never moved on or whose board was never freed, on
+     * matches whose start never completed, and on boards left unassigned. Each
+     * tournament is checked by one node only.
+     */
+    @Scheduled(fixedDelayString = "${dartcounter.tournament.reconcile-interval-ms:30000}",
+               initialDelayString = "${dartcounter.tournament.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        for (String code : tournamentRepository.findCodesByStatus(TournamentStatus.ACTIVE)) {
+            if (!affinity.isLocal(code)) {
+                continue;
+            }
+            try {
+                reconcile(code);
+            } catch (RuntimeException e) {
+                log.error("Failed to reconcile tournament {}: {}", code, e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        virtualThreads.shutdown();
+    }
+
+    private void reconcile(String code) {
+        LocalDateTime startCutoff = LocalDateTime.now().minusNanos(startTimeoutMs * 1_000_000);
+        for (TournamentMatch match : matchRepository.findByTournamentCodeAndStatus(code, TournamentMatchStatus.PLAYING)) {
+            // Still being started, unless its starter went away without taking the claim back
+            if (match.getSessionCode() == null) {
+                if (match.getClaimedAt() != null && match.getClaimedAt().isBefore(startCutoff)) {
+                    log.warn("Match {}/{} of tournament {} was never started, freeing board {}",
+                        match.getRound(), match.getPosition(), code, match.getBoard());
+                    abandonStart(match, match.getBoard(), match.getClaimedAt());
+                }
+                continue;
+            }
+            try {
+                GameStateDTO state = sessionService.getState(match.getSessionCode());
+                if (GameStatus.FINISHED.name().equals(state.getStatus())) {
+                    recordResult(code, match.getSessionCode(), state.getWinnerName());
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Session {} of tournament {} no longer exists", match.getSessionCode(), code);
+            }
+        }
+        tournamentRepository.findById(code).ifPresent(tournament -> {
+            repairFinishedMatches(tournament);
+            assignBoards(tournament);
+        });
+    }
+
+    /**
+     * Completes finished matches whose result was only partly applied, which
+     * results recorded before they became a single transaction can leave behind:
+     * moves the winner on, finishes the tournament and frees boards still held.
+     * Every step is conditional, so running it next to live results is harmless.
+     */
+    private void repairFinishedMatches(Tournament tournament) {
+        String code = tournament.getCode();
+        List<TournamentMatch> matches = matchRepository.findByTournamentCodeOrderByRoundAscPositionAsc(code);
+        int size = 1 << tournament.getRounds();
+        Map<Long, TournamentMatch> byId = new HashMap<>();
+        for (TournamentMatch match : matches) {
+            byId.put(match.getId(), match);
+            if (match.getStatus() != TournamentMatchStatus.FINISHED || match.getWinner() == null) {
+                continue;
+            }
+
+            if (match.getRound() == tournament.getRounds() - 1) {
+                if (update(() -> tournamentRepository.finish(code, match.getWinner())) == 1) {
+                    log.warn("Finished tournament {} left active after its final", code);
+                }
+                continue;
+            }
+            // Matches are listed round by round, and round r starts after the size - (size >> r) earlier ones
+            int round = match.getRound() + 1;
+            TournamentMatch next = matches.get(size - (size >> round) + match.getPosition() / 2);
+            String side = match.getPosition() % 2 == 0 ? next.getPlayer1() : next.getPlayer2();
+            boolean unready = next.getStatus() == TournamentMatchStatus.PENDING
+                && next.getPlayer1() != null && next.getPlayer2() != null;
+            if (side == null || unready) {
+                log.warn("Moving {} on from match {}/{} of tournament {} after a partly applied result",
+                    match.getWinner(), match.getRound(), match.getPosition(), code);
+                transactionTemplate.executeWithoutResult(status -> advance(match, match.getWinner()));
+            }
+        }
+
+        for (TournamentBoard board : boardRepository.findByTournamentCodeAndMatchIdIsNotNull(code)) {
+            TournamentMatch match = byId.get(board.getMatchId());
+            if (match != null && match.getStatus() == TournamentMatchStatus.FINISHED
+                && update(() -> boardRepository.release(code, board.getNumber(), match.getId())) == 1) {
+                log.warn("Freed board {} of tournament {}, still held by a finished match", board.getNumber(), code);
+            }
+        }
+    }
+
+    /**
+     * Fills the winner into their side of the next match. Each side has exactly
+     * one feeding match, and whichever of the two fills the second side makes
+     * the match ready. Must run in a transaction.
+     */
+    private void advance(TournamentMatch match, String winner) {
+        TournamentMatch next = matchRepository.findByTournamentCodeAndRoundAndPosition(
+            match.getTournamentCode(), match.getRound() + 1, match.getPosition() / 2).orElseThrow();
+        if (match.getPosition() % 2 == 0) {
+            matchRepository.fillPlayer1(next.getId(), winner);
+        } else {
+            matchRepository.fillPlayer2(next.getId(), winner);
+        }
+        if (matchRepository.markReady(next.getId()) == 1) {
+            log.debug("Match {}/{} of tournament {} is ready", next.getRound(), next.getPosition(),
+                next.getTournamentCode());
+        }
+    }
+
+    /**
+     * Starts ready matches on free boards until either runs out. Called after
+     * every change that frees a board or readies a match, and each caller only
+     * looks once its own change is committed, so no pairing is missed.
+     */
+    private void assignBoards(Tournament tournament) {
+        String code = tournament.getCode();
+        PageRequest candidates = PageRequest.of(0, CLAIM_CANDIDATES);
+        while (true) {
+            List<Integer> free = boardRepository.findFreeBoards(code, candidates);
+            if (free.isEmpty()) {
+                return;
+            }
+            List<TournamentMatch> ready = matchRepository.findByTournamentCodeAndStatusOrderByRoundAscPositionAsc(
+                code, TournamentMatchStatus.READY, candidates);
+            if (ready.isEmpty()) {
+                return;
+            }
+
+            int board = free.get(ThreadLocalRandom.current().nextInt(free.size()));
+            TournamentMatch match = ready.get(ThreadLocalRandom.current().nextInt(ready.size()));
+            // Compared for equality later, so no finer than the database keeps it
+            LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            if (update(() -> boardRepository.claim(code, board, match.getId())) == 0) {
+                continue;
+            }
+            if (update(() -> matchRepository.claim(match.getId(), board, claimedAt)) == 0) {
+                // Someone else started the match
+                update(() -> boardRepository.release(code, board, match.getId()));
+                continue;
+            }
+            startMatch(tournament, match, board, claimedAt);
+        }
+    }
+
+    /**
+     * Creates and starts the session of a claimed match. If that fails, the
+     * claim is taken back, so the match and board can be paired again; the
+     * failure is rethrown to stop assigning further boards for now.
+     */
+    private void startMatch(Tournament tournament, TournamentMatch match, int board, LocalDateTime claimedAt) {
+        GameSession session;
+        try {
+            session = sessionService.createSession(sessionRequest(tournament, match), tournament.getCode());
+        } catch (RuntimeException e) {
+            abandonStart(match, board, claimedAt, e);
+            throw e;
+        }
+
+        String sessionCode = session.getSessionCode();
+        int assigned;
+        try {
+            assigned = update(() -> matchRepository.assignSession(match.getId(), sessionCode, claimedAt));
+        } catch (RuntimeException e) {
+            abandonStart(match, board, claimedAt, e);
+            discardSession(sessionCode);
+            throw e;
+        }
+        if (assigned == 0) {
+            // Taken back by reconcile after the start timeout
+            log.warn("Claim of match {}/{} of tournament {} expired before it started",
+                match.getRound(), match.getPosition(), tournament.getCode());
+            discardSession(sessionCode);
+            return;
+        }
+
+        startSession(sessionCode);
+        log.info("Match {}/{} of tournament {} started on board {} as session {}",
+            match.getRound(), match.getPosition(), tournament.getCode(), board, sessionCode);
+    }
+
+    // Both in one transaction, so a board is never left claimed by a match that is ready again
+    private void abandonStart(TournamentMatch match, int board, LocalDateTime claimedAt) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (matchRepository.unclaim(match.getId(), claimedAt) == 1) {
+                boardRepository.release(match.getTournamentCode(), board, match.getId());
+            }
+        });
+    }
+
+    private void abandonStart(TournamentMatch match, int board, LocalDateTime claimedAt, RuntimeException cause) {
+        try {
+            abandonStart(match, board, claimedAt);
+        } catch (RuntimeException e) {
+            // Left to reconcile once the claim times out
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void discardSession(String sessionCode) {
+        try {
+            sessionService.deleteSession(sessionCode);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete unused session {}, leaving it to expire: {}", sessionCode, e.getMessage());
+        }
+    }
+
+    // On the owning node's mailbox, so that connected clients get the broadcast
+    private void startSession(String sessionCode) {
+        dispatcher.dispatch(GameCommand.builder()
+            .type(GameCommand.Type.START)
+            .sessionCode(sessionCode)
+            .build());
+    }
+
+    private int update(Supplier<Integer> statement) {
+        return transactionTemplate.execute(status -> statement.get());
+    }
+
+    /**
+     * All matches of the bracket, round by round. Byes go to the first players
+     * and are decided here, so a second-round match of two byes starts ready.
+     */
+    private static List<TournamentMatch> bracket(String code, List<String> names, int rounds) {
+        int size = 1 << rounds;
+        List<TournamentMatch> matches = new ArrayList<>(size - 1);
+        for (int round = 0; round < rounds; round++) {
+            for (int position = 0; position < size >> (round + 1); position++) {
+                matches.add(new TournamentMatch(code, round, position));
+            }
+        }
+
+        int byes = size - names.size();
+        int next = 0;
+        for (int position = 0; position < size / 2; position++) {
+            TournamentMatch match = matches.get(position);
+            match.setPlayer1(names.get(next++));
+            if (position >= byes) {
+                match.setPlayer2(names.get(next++));
+                match.setStatus(TournamentMatchStatus.READY);
+                continue;
+            }
+            match.setStatus(TournamentMatchStatus.FINISHED);
+            match.setWinner(match.getPlayer1());
+            // Second round matches follow the size / 2 first round ones
+            TournamentMatch second = matches.get(size / 2 + position / 2);
+            if (position % 2 == 0) {
+                second.setPlayer1(match.getWinner());
+            } else {
+                second.setPlayer2(match.getWinner());
+            }
+            if (second.getPlayer1() != null && second.getPlayer2() != null) {
+                second.setStatus(TournamentMatchStatus.READY);
+            }
+        }
+        return matches;
+    }
+
+    private static CreateSessionRequest sessionRequest(Tournament tournament, TournamentMatch match) {
+        CreateSessionRequest request = new CreateSessionRequest();
+        request.setPlayerNames(List.of(match.getPlayer1(), match.getPlayer2()));
+        request.setStartingScore(tournament.getStartingScore());
+        request.setOutMode(tournament.getOutMode());
+        request.setInMode(tournament.getInMode());
+        request.setLegsPerSet(tournament.getLegsPerSet());
+        request.setSetsToWin(tournament.getSetsToWin());
+        return request;
+    }
+}
@@ -0,0 +1,22 @@
+package com.dartcounter.service;
+
+import com.dartcounter.dto.GameStateDTO;
+import lombok.Getter;
+
+/**
+ * Thrown when a command was issued against an outdated version of a session.
+ * Carries the current state so the client can resynchronize without another request.
+ */
+@Getter
+public class VersionConflictException extends RuntimeException {
+
+    private final long expectedVersion;
+    private final GameStateDTO currentState;
+
+    public VersionConflictException(long expectedVersion, GameStateDTO currentState) {
+        super("Stale version " + expectedVersion + ", current version is " + currentState.getVersion());
+        this.expectedVersion = expectedVersion;
+        this.currentState = currentState;
+        currentState.setMessage("Conflict: " + getMessage());
+    }
+}
@@ -0,0 +1,251 @@
+package com.dartcounter.service;
+
+import com.dartcounter.dto.GameStateDTO;
+import com.dartcounter.dto.GameStateDelta;
+import com.dartcounter.dto.PlayerDTO;
+import com.dartcounter.entity.GameStatus;
+import com.dartcounter.entity.InMode;
+import com.dartcounter.entity.OutMode;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compact binary encoding of game states and deltas, an alternative to JSON
+ * for clients that subscribe to /topic/session/{code} with the STOMP header
+ * {@code content-type:application/octet-stream}. Such subscriptions are moved to
+ * /topic/session/{code}/binary, which only carries binary frames.
+ *
+ * A frame is a kind byte (1 state, 2 delta) followed by fields in a fixed order.
+ * Numbers are unsigned varints of the value plus two, and 1 marks a null.
+ * Strings are their UTF-8 length, encoded like a number, followed by the bytes.
+ * Enums are sent as their ordinal. Varints of values above zero contain no NUL
+ * byte. That matters because STOMP clients treat NUL as the end of a frame.
+ *
+ * State: code, version, status, out mode, in mode, starting score, current
+ * player, darts thrown, winner, message, checkout (count, darts), legs per
+ * set, sets to win, set number, leg number, players (count; player).
+ * Player: name, score, current throw, order, average, first-9 average and
+ * checkout percentage (each in hundredths), 180s, highest visit, legs won,
+ * sets won.
+ * Delta: code, base version, version, field mask, then the fields present in
+ * mask order: players (count; index, player), current player, darts thrown,
+ * status, winner, message, checkout, set number, leg number. Binary clients must use a native
+ * WebSocket; SockJS only carries text.
+ */
+public final class WireFormat {
+
+    public static final MimeType BINARY = MimeTypeUtils.APPLICATION_OCTET_STREAM;
+
+    private static final String SESSION_TOPIC = "/topic/session/";
+    private static final String BINARY_SUFFIX = "/binary";
+
+    private static final int STATE = 1;
+    private static final int DELTA = 2;
+
+    // Delta field mask
+    private static final int PLAYERS = 1;
+    private static final int CURRENT_PLAYER = 1 << 1;
+    private static final int DARTS_THROWN = 1 << 2;
+    private static final int STATUS = 1 << 3;
+    private static final int WINNER = 1 << 4;
+    private static final int MESSAGE = 1 << 5;
+    private static final int CHECKOUT = 1 << 6;
+    private static final int SET_NUMBER = 1 << 7;
+    private static final int LEG_NUMBER = 1 << 8;
+
+    private WireFormat() {
+    }
+
+    public static String binaryDestination(String destination) {
+        return destination + BINARY_SUFFIX;
+    }
+
+    /**
+     * The destination a subscription actually gets: the binary topic if a
+     * session topic is subscribed with the binary content type.
+     */
+    public static String subscriptionDestination(String destination, MimeType contentType) {
+        if (destination == null || contentType == null || !BINARY.equalsTypeAndSubtype(contentType)
+            || !destination.startsWith(SESSION_TOPIC) || destination.indexOf('/', SESSION_TOPIC.length()) >= 0) {
+            return destination;
+        }
+        return binaryDestination(destination);
+    }
+
+    /**
+     * Encodes a {@link GameStateDTO} or {@link GameStateDelta}.
+     */
+    public static byte[] encode(Object payload) {
+        Writer out = new Writer();
+        if (payload instanceof GameStateDelta delta) {
+            writeDelta(out, delta);
+        } else if (payload instanceof GameStateDTO state) {
+            writeState(out, state);
+        } else {
+            throw new IllegalArgumentException("No binary encoding for " + payload.getClass().getSimpleName());
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeState(Writer out, GameStateDTO state) {
+        out.kind(STATE);
+        out.string(state.getSessionCode());
+        out.number(state.getVersion());
+        out.ordinal(state.getStatus(), GameStatus.class);
+        out.ordinal(state.getOutMode(), OutMode.class);
+        out.ordinal(state.getInMode(), InMode.class);
+        out.number(state.getStartingScore());
+        out.number(state.getCurrentPlayerIndex());
+        out.number(state.getDartsThrown());
+        out.string(state.getWinnerName());
+        out.string(state.getMessage());
+        writeCheckout(out, state.getCheckout());
+        out.number(state.getLegsPerSet());
+        out.number(state.getSetsToWin());
+        out.number(state.getSetNumber());
+        out.number(state.getLegNumber());
+
+        List<PlayerDTO> players = state.getPlayers();
+        out.number(players != null ? players.size() : 0);
+        if (players != null) {
+            players.forEach(player -> writePlayer(out, player));
+        }
+    }
+
+    private static void writeDelta(Writer out, GameStateDelta delta) {
+        int mask = (delta.getPlayers() != null ? PLAYERS : 0)
+            | (delta.getCurrentPlayerIndex() != null ? CURRENT_PLAYER : 0)
+            | (delta.getDartsThrown() != null ? DARTS_THROWN : 0)
+            | (delta.getStatus() != null ? STATUS : 0)
+            | (delta.getWinnerName() != null ? WINNER : 0)
+            | (delta.getMessage() != null ? MESSAGE : 0)
+            | (delta.getCheckout() != null ? CHECKOUT : 0)
+            | (delta.getSetNumber() != null ? SET_NUMBER : 0)
+            | (delta.getLegNumber() != null ? LEG_NUMBER : 0);
+
+        out.kind(DELTA);
+        out.string(delta.getSessionCode());
+        out.number(delta.getBaseVersion());
+        out.number(delta.getVersion());
+        out.number(mask);
+
+        if (delta.getPlayers() != null) {
+            out.number(delta.getPlayers().size());
+            for (Map.Entry<Integer, PlayerDTO> entry : delta.getPlayers().entrySet()) {
+                out.number(entry.getKey());
+                writePlayer(out, entry.getValue());
+            }
+        }
+        if (delta.getCurrentPlayerIndex() != null) {
+            out.number(delta.getCurrentPlayerIndex());
+        }
+        if (delta.getDartsThrown() != null) {
+            out.number(delta.getDartsThrown());
+        }
+        if (delta.getStatus() != null) {
+            out.ordinal(delta.getStatus(), GameStatus.class);
+        }
+        if (delta.getWinnerName() != null) {
+            out.string(delta.getWinnerName());
+        }
+        if (delta.getMessage() != null) {
+            out.string(delta.getMessage());
+        }
+        if (delta.getCheckout() != null) {
+            writeCheckout(out, delta.getCheckout());
+        }
+        if (delta.getSetNumber() != null) {
+            out.number(delta.getSetNumber());
+        }
+        if (delta.getLegNumber() != null) {
+            out.number(delta.getLegNumber());
+        }
+    }
+
+    private static void writePlayer(Writer out, PlayerDTO player) {
+        out.string(player.getName());
+        out.number(player.getScore());
+        out.number(player.getCurrentThrow());
+        out.number(player.getPlayerOrder());
+        out.hundredths(player.getAverage());
+        out.hundredths(player.getFirst9Average());
+        out.hundredths(player.getCheckoutPercentage());
+        out.number(player.getOneEighties());
+        out.number(player.getHighestVisit());
+        out.number(player.getLegsWon());
+        out.number(player.getSetsWon());
+    }
+
+    private static void writeCheckout(Writer out, List<String> checkout) {
+        out.number(checkout != null ? checkout.size() : 0);
+        if (checkout != null) {
+            checkout.forEach(out::string);
+        }
+    }
+
+    private static final class Writer {
+
+        private static final long NULL = 1;
+
+        private byte[] bytes = new byte[128];
+        private int size;
+
+        void kind(int kind) {
+            write(kind);
+        }
+
+        void number(Number value) {
+            varint(value == null ? NULL : value.longValue() + 2);
+        }
+
+        void hundredths(Double value) {
+            number(value == null ? null : Math.round(value * 100));
+        }
+
+        <E extends Enum<E>> void ordinal(String name, Class<E> type) {
+            number(name == null ? null : Enum.valueOf(type, name).ordinal());
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varint(NULL);
+                return;
+            }
+            // U+0000 would encode as a NUL byte
+            byte[] utf8 = value.replace('\0', '\uFFFD').getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length + 2L);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        // Continuation bytes have the high bit set and the last byte is non-zero for values above 0
+        private void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private void write(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
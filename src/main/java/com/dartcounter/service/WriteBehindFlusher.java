@@ -0,0 +1,179 @@
+package com.dartcounter.service;
+
+import com.dartcounter.entity.GameEvent;
+import com.dartcounter.entity.GameSession;
+import com.dartcounter.entity.Player;
+import com.dartcounter.repository.GameEventStore;
+import com.dartcounter.repository.GameSessionRepository;
+import com.dartcounter.repository.PlayerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically appends the new events of dirty resident sessions to the event log.
+ *
+ * Flushes are append-only apart from the session's updatedAt. The session and
+ * player rows are only rewritten as a snapshot every {@code snapshot-interval}
+ * events and before a session is evicted, which bounds the replay needed to load it again.
+ *
+ * The flush interval is the durability window: a crash loses at most the commands
+ * applied since the last flush, unless the event store is write-through and
+ * events are appended as each command completes. Everything still pending is
+ * flushed on shutdown.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WriteBehindFlusher {
+
+    private final LiveSessionRegistry registry;
+    private final GameSessionRepository sessionRepository;
+    private final PlayerRepository playerRepository;
+    private final GameEventStore eventStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${dartcounter.write-behind.idle-eviction-minutes:30}")
+    private long idleEvictionMinutes;
+
+    @Value("${dartcounter.write-behind.snapshot-interval:64}")
+    private int snapshotInterval = 64;
+
+    @Scheduled(fixedDelayString = "${dartcounter.write-behind.flush-interval-ms:500}")
+    public void flushDirtySessions() {
+        long idleCutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleEvictionMinutes);
+
+        for (LiveSession live : registry.all()) {
+            live.getLock().lock();
+            try {
+                if (live.isEvicted()) {
+                    continue;
+                }
+                boolean idle = live.getLastAccessMillis() < idleCutoff;
+                if (live.isDirty() || (idle && live.isSnapshotDue(1))) {
+                    // Snapshot before eviction so that reloading needs no replay
+                    flush(live, idle || live.isSnapshotDue(snapshotInterval));
+                }
+                if (idle) {
+                    registry.evict(live);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to flush session {}: {}", live.getSessionCode(), e.getMessage(), e);
+            } finally {
+                live.getLock().unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = 0;
+        for (LiveSession live : registry.all()) {
+            live.getLock().lock();
+            try {
+                if (!live.isEvicted() && (live.isDirty() || live.isSnapshotDue(1))) {
+                    flush(live, true);
+                    flushed++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to flush session {} on shutdown: {}", live.getSessionCode(), e.getMessage(), e);
+            } finally {
+                live.getLock().unlock();
+            }
+        }
+        log.info("Flushed {} sessions on shutdown", flushed);
+    }
+
+    /**
+     * Appends the pending events of a session right away if the event store is
+     * write-through, so the command is durable before it is answered. Snapshots
+     * are still left to the scheduled flush. Must be called with the session lock held.
+     */
+    public void writeThrough(LiveSession live) {
+        if (!eventStore.isWriteThrough() || live.getPendingEvents().isEmpty()) {
+            return;
+        }
+        try {
+            eventStore.append(live.getPendingEvents());
+            live.markAppended();
+        } catch (RuntimeException e) {
+            // Still pending, so the scheduled flush retries
+            log.warn("Failed to append events of session {}: {}", live.getSessionCode(), e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the pending events of a session, plus a snapshot if one is due.
+     * Must be called with the session lock held.
+     */
+    public void flush(LiveSession live) {
+        flush(live, live.isSnapshotDue(snapshotInterval));
+    }
+
+    /**
+     * Appends the pending events of a session in one transaction, and rewrites
+     * its snapshot if requested. Otherwise only the session's updatedAt is
+     * refreshed, so the row never looks expired while the game goes on.
+     * Must be called with the session lock held.
+     */
+    public void flush(LiveSession live, boolean snapshot) {
+        GameSession session = live.getSession();
+        List<GameEvent> events = live.getPendingEvents();
+        if (events.isEmpty() && !snapshot && !live.isDirty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!events.isEmpty()) {
+                    eventStore.append(events);
+                }
+                if (snapshot) {
+                    writeSnapshot(live);
+                } else {
+                    sessionRepository.touch(session.getSessionCode(), session.getUpdatedAt());
+                }
+            });
+        } catch (RuntimeException e) {
+            // Ids handed out by the rolled back inserts are not valid
+            events.forEach(event -> event.setId(null));
+            throw e;
+        }
+
+        live.markFlushed(snapshot);
+        log.debug("Flushed session {} at version {}{}", session.getSessionCode(), session.getVersion(),
+            snapshot ? " with snapshot" : "");
+    }
+
+    private void writeSnapshot(LiveSession live) {
+        GameSession session = live.getSession();
+        sessionRepository.updateState(
+            session.getSessionCode(),
+            session.getCurrentPlayerIndex(),
+            session.getDartsThrown(),
+            session.getStatus(),
+            session.getWinnerName(),
+            session.getVersion(),
+            session.getUpdatedAt(),
+            live.getEventSeq(),
+            live.encodeUndoFrames(),
+            session.getMatch()
+        );
+
+        List<Player> players = session.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            if (live.isPlayerChanged(i)) {
+                Player player = players.get(i);
+                playerRepository.updateState(player.getId(), player.getScore(), player.getCurrentThrow(),
+                    player.getStats(), player.getLegsWon(), player.getSetsWon());
+            }
+        }
+    }
+}
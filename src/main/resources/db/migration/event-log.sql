@@ -0,0 +1,30 @@
+-- Replaces throw_history with the game_events log and adds the snapshot
+-- columns to game_sessions. Run once against an existing PostgreSQL database
+-- before deploying; new databases get the schema from Hibernate's schema update.
+--
+-- Existing sessions keep their scores as the initial snapshot (snapshot_seq 0)
+-- but lose their undo history.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS game_events_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS game_events (
+    id           BIGINT PRIMARY KEY,
+    session_code VARCHAR(6) NOT NULL,
+    seq          INTEGER NOT NULL,
+    type         SMALLINT NOT NULL,
+    dart         SMALLINT,
+    version      BIGINT NOT NULL,
+    created_at   TIMESTAMP NOT NULL,
+    CONSTRAINT uk_game_events_session_seq UNIQUE (session_code, seq)
+);
+
+ALTER TABLE game_sessions ADD COLUMN IF NOT EXISTS snapshot_seq INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE game_sessions ADD COLUMN IF NOT EXISTS undo_frames BYTEA;
+
+-- Its foreign key to game_sessions would block session deletes
+DROP TABLE IF EXISTS throw_history;
+DROP SEQUENCE IF EXISTS throw_history_seq;
+
+COMMIT;
@@ -0,0 +1,28 @@
+-- Adds matches of several legs and sets. Run once against an existing
+-- PostgreSQL database before deploying; new databases get the schema from
+-- Hibernate's schema update.
+--
+-- Existing sessions become single-leg matches. Hibernate's schema update
+-- does not widen the check constraints it generated for enum columns, so
+-- those are replaced to admit the LEG_FINISHED status and NEXT_LEG events.
+
+BEGIN;
+
+ALTER TABLE game_sessions ADD COLUMN IF NOT EXISTS legs_per_set INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE game_sessions ADD COLUMN IF NOT EXISTS sets_to_win INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE game_sessions ADD COLUMN IF NOT EXISTS set_number INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE game_sessions ADD COLUMN IF NOT EXISTS leg_number INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE game_sessions ADD COLUMN IF NOT EXISTS leg_starter INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE game_sessions ADD COLUMN IF NOT EXISTS leg_summaries BYTEA;
+
+ALTER TABLE players ADD COLUMN IF NOT EXISTS legs_won INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE players ADD COLUMN IF NOT EXISTS sets_won INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE game_sessions DROP CONSTRAINT IF EXISTS game_sessions_status_check;
+ALTER TABLE game_sessions ADD CONSTRAINT game_sessions_status_check
+    CHECK (status IN ('WAITING', 'ACTIVE', 'FINISHED', 'LEG_FINISHED'));
+
+ALTER TABLE game_events DROP CONSTRAINT IF EXISTS game_events_type_check;
+ALTER TABLE game_events ADD CONSTRAINT game_events_type_check CHECK (type BETWEEN 0 AND 5);
+
+COMMIT;
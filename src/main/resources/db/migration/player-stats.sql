@@ -0,0 +1,28 @@
+-- Adds the running leg statistics to players. Run once against an existing
+-- PostgreSQL database before deploying; new databases get the schema from
+-- Hibernate's schema update.
+--
+-- Statistics of legs in progress start from zero. Their undo history is
+-- dropped, since undo frames now also carry the highest visit and taking back
+-- a throw that was never counted would leave negative totals. Sessions with
+-- events after their snapshot keep it, as replaying an undo needs the frames;
+-- a clean shutdown snapshots every resident session, so normally there are none.
+
+BEGIN;
+
+ALTER TABLE players ADD COLUMN IF NOT EXISTS darts_thrown INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE players ADD COLUMN IF NOT EXISTS points_scored INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE players ADD COLUMN IF NOT EXISTS visits INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE players ADD COLUMN IF NOT EXISTS first9_darts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE players ADD COLUMN IF NOT EXISTS first9_points INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE players ADD COLUMN IF NOT EXISTS checkout_attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE players ADD COLUMN IF NOT EXISTS checkouts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE players ADD COLUMN IF NOT EXISTS one_eighties INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE players ADD COLUMN IF NOT EXISTS highest_visit INTEGER NOT NULL DEFAULT 0;
+
+UPDATE game_sessions s SET undo_frames = NULL
+WHERE NOT EXISTS (
+    SELECT 1 FROM game_events e WHERE e.session_code = s.session_code AND e.seq > s.snapshot_seq
+);
+
+COMMIT;
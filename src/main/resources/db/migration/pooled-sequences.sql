@@ -0,0 +1,21 @@
+-- Moves players and throw_history from IDENTITY columns to pooled sequences.
+-- Run once against an existing PostgreSQL database before deploying; new
+-- databases get the sequences from Hibernate's schema update.
+
+BEGIN;
+
+-- Hibernate allocates ids in blocks of 50 below each value it draws, so start
+-- a full block above the highest existing id
+CREATE SEQUENCE IF NOT EXISTS players_seq INCREMENT BY 50;
+SELECT setval('players_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM players));
+
+CREATE SEQUENCE IF NOT EXISTS throw_history_seq INCREMENT BY 50;
+SELECT setval('throw_history_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM throw_history));
+
+-- Ids are now assigned by the application
+ALTER TABLE players ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE players ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE throw_history ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE throw_history ALTER COLUMN id DROP DEFAULT;
+
+COMMIT;
@@ -4,250 +4,18 @@ const { createRouter, createWebHistory } = VueRouter;
 // API configuration
 const API_BASE_URL = '/api';
 const WS_URL = '/ws';
+const RECONNECT_DELAY_MS = 2000;
 
 // Available player names
 const availableNames = ['Leo', 'Alex', 'Jakob', 'Philip', 'Patrick', 'Elisabeth', 'Bernhard', 'Thomas'];
 
-// Checkout suggestions tables
-// Format: array of darts needed, e.g., ['T20', 'T20', 'D20'] for 170
-
-// Double Out checkout table (must finish on a double)
-const doubleOutTable = {
-    170: ['T20', 'T20', 'D25'],
-    167: ['T20', 'T19', 'D25'],
-    164: ['T20', 'T18', 'D25'],
-    161: ['T20', 'T17', 'D25'],
-    160: ['T20', 'T20', 'D20'],
-    158: ['T20', 'T20', 'D19'],
-    157: ['T20', 'T19', 'D20'],
-    156: ['T20', 'T20', 'D18'],
-    155: ['T20', 'T19', 'D19'],
-    154: ['T20', 'T18', 'D20'],
-    153: ['T20', 'T19', 'D18'],
-    152: ['T20', 'T20', 'D16'],
-    151: ['T20', 'T17', 'D20'],
-    150: ['T20', 'T18', 'D18'],
-    149: ['T20', 'T19', 'D16'],
-    148: ['T20', 'T20', 'D14'],
-    147: ['T20', 'T17', 'D18'],
-    146: ['T20', 'T18', 'D16'],
-    145: ['T20', 'T19', 'D14'],
-    144: ['T20', 'T20', 'D12'],
-    143: ['T20', 'T17', 'D16'],
-    142: ['T20', 'T14', 'D20'],
-    141: ['T20', 'T19', 'D12'],
-    140: ['T20', 'T20', 'D10'],
-    139: ['T20', 'T13', 'D20'],
-    138: ['T20', 'T18', 'D12'],
-    137: ['T20', 'T19', 'D10'],
-    136: ['T20', 'T20', 'D8'],
-    135: ['T20', 'T17', 'D12'],
-    134: ['T20', 'T14', 'D16'],
-    133: ['T20', 'T19', 'D8'],
-    132: ['T20', 'T16', 'D12'],
-    131: ['T20', 'T13', 'D16'],
-    130: ['T20', 'T18', 'D8'],
-    129: ['T19', 'T16', 'D12'],
-    128: ['T18', 'T14', 'D16'],
-    127: ['T20', 'T17', 'D8'],
-    126: ['T19', 'T19', 'D6'],
-    125: ['T20', 'T19', 'D4'],
-    124: ['T20', 'T16', 'D8'],
-    123: ['T19', 'T16', 'D9'],
-    122: ['T18', 'T18', 'D7'],
-    121: ['T20', 'T11', 'D14'],
-    120: ['T20', 'S20', 'D20'],
-    119: ['T19', 'T12', 'D13'],
-    118: ['T20', 'S18', 'D20'],
-    117: ['T20', 'S17', 'D20'],
-    116: ['T20', 'S16', 'D20'],
-    115: ['T20', 'S15', 'D20'],
-    114: ['T20', 'S14', 'D20'],
-    113: ['T20', 'S13', 'D20'],
-    112: ['T20', 'T12', 'D8'],
-    111: ['T20', 'S19', 'D16'],
-    110: ['T20', 'S10', 'D20'],
-    109: ['T20', 'S9', 'D20'],
-    108: ['T20', 'S16', 'D16'],
-    107: ['T19', 'S10', 'D20'],
-    106: ['T20', 'S6', 'D20'],
-    105: ['T20', 'S13', 'D16'],
-    104: ['T18', 'S18', 'D16'],
-    103: ['T19', 'S6', 'D20'],
-    102: ['T20', 'S10', 'D16'],
-    101: ['T17', 'S10', 'D20'],
-    100: ['T20', 'D20'],
-    99: ['T19', 'S10', 'D16'],
-    98: ['T20', 'D19'],
-    97: ['T19', 'D20'],
-    96: ['T20', 'D18'],
-    95: ['T19', 'D19'],
-    94: ['T18', 'D20'],
-    93: ['T19', 'D18'],
-    92: ['T20', 'D16'],
-    91: ['T17', 'D20'],
-    90: ['T18', 'D18'],
-    89: ['T19', 'D16'],
-    88: ['T20', 'D14'],
-    87: ['T17', 'D18'],
-    86: ['T18', 'D16'],
-    85: ['T19', 'D14'],
-    84: ['T20', 'D12'],
-    83: ['T17', 'D16'],
-    82: ['T14', 'D20'],
-    81: ['T19', 'D12'],
-    80: ['T20', 'D10'],
-    79: ['T13', 'D20'],
-    78: ['T18', 'D12'],
-    77: ['T19', 'D10'],
-    76: ['T20', 'D8'],
-    75: ['T17', 'D12'],
-    74: ['T14', 'D16'],
-    73: ['T19', 'D8'],
-    72: ['T16', 'D12'],
-    71: ['T13', 'D16'],
-    70: ['T18', 'D8'],
-    69: ['T19', 'D6'],
-    68: ['T20', 'D4'],
-    67: ['T17', 'D8'],
-    66: ['T10', 'D18'],
-    65: ['T19', 'D4'],
-    64: ['T16', 'D8'],
-    63: ['T13', 'D12'],
-    62: ['T10', 'D16'],
-    61: ['T15', 'D8'],
-    60: ['S20', 'D20'],
-    59: ['S19', 'D20'],
-    58: ['S18', 'D20'],
-    57: ['S17', 'D20'],
-    56: ['S16', 'D20'],
-    55: ['S15', 'D20'],
-    54: ['S14', 'D20'],
-    53: ['S13', 'D20'],
-    52: ['S12', 'D20'],
-    51: ['S11', 'D20'],
-    50: ['D25'],
-    49: ['S9', 'D20'],
-    48: ['S16', 'D16'],
-    47: ['S15', 'D16'],
-    46: ['S6', 'D20'],
-    45: ['S13', 'D16'],
-    44: ['S12', 'D16'],
-    43: ['S11', 'D16'],
-    42: ['S10', 'D16'],
-    41: ['S9', 'D16'],
-    40: ['D20'],
-    39: ['S7', 'D16'],
-    38: ['D19'],
-    37: ['S5', 'D16'],
-    36: ['D18'],
-    35: ['S3', 'D16'],
-    34: ['D17'],
-    33: ['S1', 'D16'],
-    32: ['D16'],
-    31: ['S15', 'D8'],
-    30: ['D15'],
-    29: ['S13', 'D8'],
-    28: ['D14'],
-    27: ['S11', 'D8'],
-    26: ['D13'],
-    25: ['S9', 'D8'],
-    24: ['D12'],
-    23: ['S7', 'D8'],
-    22: ['D11'],
-    21: ['S5', 'D8'],
-    20: ['D10'],
-    19: ['S3', 'D8'],
-    18: ['D9'],
-    17: ['S1', 'D8'],
-    16: ['D8'],
-    15: ['S7', 'D4'],
-    14: ['D7'],
-    13: ['S5', 'D4'],
-    12: ['D6'],
-    11: ['S3', 'D4'],
-    10: ['D5'],
-    9: ['S1', 'D4'],
-    8: ['D4'],
-    7: ['S3', 'D2'],
-    6: ['D3'],
-    5: ['S1', 'D2'],
-    4: ['D2'],
-    3: ['S1', 'D1'],
-    2: ['D1']
-};
-
-// Triple Out checkout table (must finish on a triple)
-const tripleOutTable = {
-    180: ['T20', 'T20', 'T20'],
-    177: ['T20', 'T19', 'T20'],
-    174: ['T20', 'T18', 'T20'],
-    171: ['T20', 'T17', 'T20'],
-    168: ['T20', 'T16', 'T20'],
-    165: ['T19', 'T18', 'T20'],
-    162: ['T20', 'T14', 'T20'],
-    159: ['T20', 'T13', 'T20'],
-    156: ['T20', 'T12', 'T20'],
-    153: ['T20', 'T11', 'T20'],
-    150: ['T20', 'T10', 'T20'],
-    147: ['T20', 'T9', 'T20'],
-    144: ['T20', 'T8', 'T20'],
-    141: ['T20', 'T7', 'T20'],
-    138: ['T20', 'T6', 'T20'],
-    135: ['T20', 'T5', 'T20'],
-    132: ['T20', 'T4', 'T20'],
-    129: ['T20', 'T3', 'T20'],
-    126: ['T20', 'T2', 'T20'],
-    123: ['T20', 'T1', 'T20'],
-    120: ['T20', 'T20'],
-    117: ['T20', 'T19'],
-    114: ['T20', 'T18'],
-    111: ['T20', 'T17'],
-    108: ['T20', 'T16'],
-    105: ['T20', 'T15'],
-    102: ['T20', 'T14'],
-    99: ['T20', 'T13'],
-    96: ['T20', 'T12'],
-    93: ['T20', 'T11'],
-    90: ['T20', 'T10'],
-    87: ['T20', 'T9'],
-    84: ['T20', 'T8'],
-    81: ['T20', 'T7'],
-    78: ['T20', 'T6'],
-    75: ['T20', 'T5'],
-    72: ['T20', 'T4'],
-    69: ['T20', 'T3'],
-    66: ['T20', 'T2'],
-    63: ['T20', 'T1'],
-    60: ['T20'],
-    57: ['T19'],
-    54: ['T18'],
-    51: ['T17'],
-    48: ['T16'],
-    45: ['T15'],
-    42: ['T14'],
-    39: ['T13'],
-    36: ['T12'],
-    33: ['T11'],
-    30: ['T10'],
-    27: ['T9'],
-    24: ['T8'],
-    21: ['T7'],
-    18: ['T6'],
-    15: ['T5'],
-    12: ['T4'],
-    9: ['T3'],
-    6: ['T2'],
-    3: ['T1']
-};
-
 // ============== API Service ==============
 const api = {
-    async createSession(playerNames, startingScore) {
+    async createSession(playerNames, startingScore, outMode, inMode, legsPerSet = 1, setsToWin = 1) {
         const response = await fetch(`${API_BASE_URL}/sessions`, {
             method: 'POST',
             headers: { 'Content-Type': 'application/json' },
-            body: JSON.stringify({ playerNames, startingScore })
+            body: JSON.stringify({ playerNames, startingScore, outMode, inMode, legsPerSet, setsToWin })
         });
         if (!response.ok) throw new Error('Failed to create session');
         return response.json();
@@ -277,34 +45,215 @@ const api = {
     }
 };
 
+// ============== Binary Wire Format ==============
+// Decodes the compact state frames described in WireFormat.java. Stomp.js
+// hands binary message bodies over as strings with one character per byte.
+const BINARY_CONTENT_TYPE = 'application/octet-stream';
+const GAME_STATUSES = ['WAITING', 'ACTIVE', 'FINISHED', 'LEG_FINISHED'];
+const OUT_MODES = ['SINGLE', 'DOUBLE', 'TRIPLE', 'MASTER'];
+const IN_MODES = ['STRAIGHT', 'DOUBLE'];
+const utf8Decoder = new TextDecoder();
+
+const decodeBinaryState = (body) => {
+    let pos = 0;
+
+    // Unsigned varint; numbers are sent as value + 2 and null as 1
+    const varint = () => {
+        let value = 0, scale = 1, b;
+        do {
+            b = body.charCodeAt(pos++);
+            value += (b & 0x7f) * scale;
+            scale *= 128;
+        } while (b & 0x80);
+        return value;
+    };
+    const number = () => {
+        const value = varint();
+        return value === 1 ? null : value - 2;
+    };
+    const string = () => {
+        const length = number();
+        if (length === null) return null;
+        const bytes = new Uint8Array(length);
+        for (let i = 0; i < length; i++) bytes[i] = body.charCodeAt(pos++);
+        return utf8Decoder.decode(bytes);
+    };
+    const ordinal = (names) => {
+        const index = number();
+        return index === null ? null : names[index];
+    };
+    const list = (item) => {
+        const items = [];
+        for (let count = number(); count > 0; count--) items.push(item());
+        return items;
+    };
+    const hundredths = () => {
+        const value = number();
+        return value === null ? null : value / 100;
+    };
+    const player = () => ({
+        name: string(),
+        score: number(),
+        currentThrow: number(),
+        playerOrder: number(),
+        average: hundredths(),
+        first9Average: hundredths(),
+        checkoutPercentage: hundredths(),
+        oneEighties: number(),
+        highestVisit: number(),
+        legsWon: number(),
+        setsWon: number()
+    });
+
+    if (body.charCodeAt(pos++) === 1) {
+        return {
+            sessionCode: string(),
+            version: number(),
+            status: ordinal(GAME_STATUSES),
+            outMode: ordinal(OUT_MODES),
+            inMode: ordinal(IN_MODES),
+            startingScore: number(),
+            currentPlayerIndex: number(),
+            dartsThrown: number(),
+            winnerName: string(),
+            message: string(),
+            checkout: list(string),
+            legsPerSet: number(),
+            setsToWin: number(),
+            setNumber: number(),
+            legNumber: number(),
+            players: list(player)
+        };
+    }
+
+    const delta = { sessionCode: string(), baseVersion: number(), version: number() };
+    const mask = number();
+    if (mask & 1) {
+        delta.players = {};
+        for (let count = number(); count > 0; count--) {
+            const index = number();
+            delta.players[index] = player();
+        }
+    }
+    if (mask & 2) delta.currentPlayerIndex = number();
+    if (mask & 4) delta.dartsThrown = number();
+    if (mask & 8) delta.status = ordinal(GAME_STATUSES);
+    if (mask & 16) delta.winnerName = string();
+    if (mask & 32) delta.message = string();
+    if (mask & 64) delta.checkout = list(string);
+    if (mask & 128) delta.setNumber = number();
+    if (mask & 256) delta.legNumber = number();
+    return delta;
+};
+
 // ============== WebSocket Service ==============
 const createWebSocketService = () => {
     let stompClient = null;
     let isConnected = false;
     let onMessageCallback = null;
+    let currentCode = null;
+    let currentState = null;
+
+    // Applies a full snapshot or a delta to the local state.
+    // Returns the resulting full state, or null if the message could not be applied.
+    const applyStateMessage = (message) => {
+        if (message.baseVersion === undefined || message.baseVersion === null) {
+            // Full snapshot, or an error state without a version
+            if (message.version !== undefined && message.version !== null) {
+                currentState = message;
+            }
+            return message;
+        }
+
+        if (!currentState || currentState.version !== message.baseVersion) {
+            // Gap in the version sequence: ask for the changes we missed
+            if (!currentState || message.version > currentState.version) {
+                requestSync();
+            }
+            return null;
+        }
+
+        const players = currentState.players.slice();
+        Object.entries(message.players || {}).forEach(([index, player]) => {
+            players[Number(index)] = player;
+        });
+
+        const next = { ...currentState, players, version: message.version, message: message.message || null };
+        ['currentPlayerIndex', 'dartsThrown', 'status', 'winnerName', 'checkout', 'setNumber', 'legNumber'].forEach(key => {
+            if (message[key] !== undefined && message[key] !== null) next[key] = message[key];
+        });
+        if (next.status !== 'FINISHED' && next.status !== 'LEG_FINISHED') next.winnerName = null;
+
+        currentState = next;
+        return next;
+    };
+
+    const handleMessage = (message) => {
+        const payload = message.headers['content-type'] === BINARY_CONTENT_TYPE
+            ? decodeBinaryState(message.body)
+            : JSON.parse(message.body);
+        const gameState = applyStateMessage(payload);
+        if (gameState && onMessageCallback) onMessageCallback(gameState);
+    };
+
+    const requestSync = () => {
+        if (!isConnected) return;
+        stompClient.send(`/app/session/${currentCode}/sync`, {}, JSON.stringify({
+            fromVersion: currentState ? currentState.version : null
+        }));
+    };
 
     return {
-        connect(sessionCode, onMessage) {
+        // Prefers a native WebSocket with binary state updates; SockJS only carries JSON
+        connect(sessionCode, onMessage, binary = 'WebSocket' in window) {
             onMessageCallback = onMessage;
+            currentCode = sessionCode;
             return new Promise((resolve, reject) => {
-                const socket = new SockJS(WS_URL);
-                stompClient = Stomp.over(socket);
+                if (binary) {
+                    const scheme = window.location.protocol === 'https:' ? 'wss' : 'ws';
+                    stompClient = Stomp.client(`${scheme}://${window.location.host}${WS_URL}`);
+                } else {
+                    stompClient = Stomp.over(new SockJS(WS_URL));
+                }
                 stompClient.debug = null;
 
                 stompClient.connect({}, () => {
                     isConnected = true;
-                    stompClient.subscribe(`/topic/session/${sessionCode}`, (message) => {
-                        const gameState = JSON.parse(message.body);
-                        if (onMessageCallback) onMessageCallback(gameState);
-                    });
+                    const topicHeaders = binary ? { 'content-type': BINARY_CONTENT_TYPE } : {};
+                    stompClient.subscribe(`/topic/session/${sessionCode}`, handleMessage, topicHeaders);
+                    stompClient.subscribe(`/user/queue/session/${sessionCode}`, handleMessage);
                     resolve();
                 }, (error) => {
+                    const failedBeforeConnect = !isConnected;
                     isConnected = false;
+                    if (binary && failedBeforeConnect) {
+                        // E.g. a proxy without WebSocket support
+                        this.connect(sessionCode, onMessage, false).then(resolve, reject);
+                        return;
+                    }
+                    if (!failedBeforeConnect) {
+                        // Lost connection, e.g. closed by the server for falling behind:
+                        // reconnect and catch up on what was missed
+                        const reconnect = () => setTimeout(() => {
+                            this.connect(sessionCode, onMessage, binary).then(requestSync, reconnect);
+                        }, RECONNECT_DELAY_MS);
+                        reconnect();
+                        return;
+                    }
                     reject(error);
                 });
             });
         },
 
+        // Seeds the local state, e.g. from a REST response, so deltas can be applied
+        setState(gameState) {
+            currentState = gameState;
+        },
+
+        sync() {
+            requestSync();
+        },
+
         disconnect() {
             if (stompClient) {
                 stompClient.disconnect();
@@ -312,10 +261,11 @@ const createWebSocketService = () => {
             }
         },
 
-        sendThrow(sessionCode, points, version) {
+        sendThrow(sessionCode, segment, multiplier, version) {
             if (!isConnected) return;
             stompClient.send(`/app/session/${sessionCode}/throw`, {}, JSON.stringify({
-                points: points,
+                segment: segment,
+                multiplier: multiplier,
                 expectedVersion: version
             }));
         },
@@ -330,6 +280,11 @@ const createWebSocketService = () => {
             stompClient.send(`/app/session/${sessionCode}/next`, {}, '{}');
         },
 
+        sendNextLeg(sessionCode) {
+            if (!isConnected) return;
+            stompClient.send(`/app/session/${sessionCode}/next-leg`, {}, '{}');
+        },
+
         sendReset(sessionCode) {
             if (!isConnected) return;
             stompClient.send(`/app/session/${sessionCode}/reset`, {}, '{}');
@@ -407,7 +362,7 @@ const SessionScreen = {
 
             try {
                 const gameState = await api.joinSession(code);
-                if (gameState.status === 'ACTIVE') {
+                if (gameState.status === 'ACTIVE' || gameState.status === 'LEG_FINISHED') {
                     router.push(`/game/${code}`);
                 } else {
                     router.push(`/setup?join=${code}`);
@@ -481,14 +436,62 @@ const SetupScreen = {
                     <div class="mode-buttons">
                         <button
                             class="mode-btn"
-                            :class="{ active: outMode === 'double' }"
-                            @click="outMode = 'double'"
+                            :class="{ active: outMode === 'SINGLE' }"
+                            @click="outMode = 'SINGLE'"
+                        >Single Out</button>
+                        <button
+                            class="mode-btn"
+                            :class="{ active: outMode === 'DOUBLE' }"
+                            @click="outMode = 'DOUBLE'"
                         >Double Out</button>
                         <button
                             class="mode-btn"
-                            :class="{ active: outMode === 'triple' }"
-                            @click="outMode = 'triple'"
+                            :class="{ active: outMode === 'TRIPLE' }"
+                            @click="outMode = 'TRIPLE'"
                         >Triple Out</button>
+                        <button
+                            class="mode-btn"
+                            :class="{ active: outMode === 'MASTER' }"
+                            @click="outMode = 'MASTER'"
+                        >Master Out</button>
+                    </div>
+                </div>
+
+                <div class="game-mode">
+                    <h3>In Mode:</h3>
+                    <div class="mode-buttons">
+                        <button
+                            class="mode-btn"
+                            :class="{ active: inMode === 'STRAIGHT' }"
+                            @click="inMode = 'STRAIGHT'"
+                        >Straight In</button>
+                        <button
+                            class="mode-btn"
+                            :class="{ active: inMode === 'DOUBLE' }"
+                            @click="inMode = 'DOUBLE'"
+                        >Double In</button>
+                    </div>
+                </div>
+
+                <div class="game-mode">
+                    <h3>Match:</h3>
+                    <div class="mode-buttons">
+                        <button
+                            v-for="legs in [1, 2, 3]"
+                            :key="legs"
+                            class="mode-btn"
+                            :class="{ active: legsPerSet === legs }"
+                            @click="legsPerSet = legs"
+                        >First to {{ legs }} {{ legs === 1 ? 'leg' : 'legs' }}</button>
+                    </div>
+                    <div class="mode-buttons">
+                        <button
+                            v-for="sets in [1, 2, 3]"
+                            :key="sets"
+                            class="mode-btn"
+                            :class="{ active: setsToWin === sets }"
+                            @click="setsToWin = sets"
+                        >{{ sets === 1 ? 'Single set' : 'First to ' + sets + ' sets' }}</button>
                     </div>
                 </div>
 
@@ -510,7 +513,10 @@ const SetupScreen = {
 
         const selectedNames = ref([]);
         const startingScore = ref(301);
-        const outMode = ref('double');
+        const outMode = ref('DOUBLE');
+        const inMode = ref('STRAIGHT');
+        const legsPerSet = ref(1);
+        const setsToWin = ref(1);
         const sessionCode = ref('');
         const statusMessage = ref('');
         const statusClass = ref('');
@@ -539,11 +545,9 @@ const SetupScreen = {
             statusClass.value = '';
 
             try {
-                // Save out mode to localStorage for the game screen
-                localStorage.setItem('outMode', outMode.value);
-
                 // Create session
-                const gameState = await api.createSession(selectedNames.value, startingScore.value);
+                const gameState = await api.createSession(selectedNames.value, startingScore.value, outMode.value, inMode.value,
+                    legsPerSet.value, setsToWin.value);
                 sessionCode.value = gameState.sessionCode;
 
                 // Connect to WebSocket
@@ -570,6 +574,10 @@ const SetupScreen = {
                     const gameState = await api.getSession(joinSessionCode);
                     selectedNames.value = gameState.players.map(p => p.name);
                     startingScore.value = gameState.startingScore;
+                    outMode.value = gameState.outMode;
+                    inMode.value = gameState.inMode;
+                    legsPerSet.value = gameState.legsPerSet ?? 1;
+                    setsToWin.value = gameState.setsToWin ?? 1;
                 } catch (error) {
                     statusMessage.value = 'Failed to load session';
                     statusClass.value = 'error';
@@ -582,6 +590,9 @@ const SetupScreen = {
             selectedNames,
             startingScore,
             outMode,
+            inMode,
+            legsPerSet,
+            setsToWin,
             sessionCode,
             statusMessage,
             statusClass,
@@ -616,6 +627,12 @@ const GameScreen = {
                     <h2>{{ player.name }}</h2>
                     <div class="score">{{ player.score }}</div>
                     <div class="current-throw">{{ player.currentThrow }}</div>
+                    <div class="player-stats" v-if="player.average !== null">
+                        Avg {{ player.average.toFixed(2) }} &middot; High {{ player.highestVisit }}
+                    </div>
+                    <div class="player-stats" v-if="match">
+                        <span v-if="match.setsToWin > 1">Sets {{ player.setsWon }} &middot; </span>Legs {{ player.legsWon }}
+                    </div>
                 </div>
             </div>
 
@@ -670,6 +687,13 @@ const GameScreen = {
                 <button class="control-btn newgame" @click="handleNewGame">New Game</button>
             </div>
 
+            <!-- Leg Winner Overlay; undo takes the winning dart back -->
+            <div class="winner-overlay" v-if="legWinner">
+                <h2>{{ legWinner }} wins the leg!</h2>
+                <button @click="handleNextLeg">Next Leg</button>
+                <button class="undo-leg" @click="handleUndo">↩ Undo</button>
+            </div>
+
             <!-- Winner Overlay -->
             <div class="winner-overlay" v-if="winner">
                 <h2>{{ winner }} Wins!</h2>
@@ -688,45 +712,24 @@ const GameScreen = {
         const modifier = ref(1);
         const version = ref(0);
         const winner = ref(null);
+        const legWinner = ref(null);
+        // Set for multi-leg matches only
+        const match = ref(null);
         const currentTurnThrows = ref([]);
         const qrCodeRef = ref(null);
-        const outMode = ref(localStorage.getItem('outMode') || 'double');
+        const outMode = ref('DOUBLE');
+        const checkout = ref([]);
 
         const ws = createWebSocketService();
 
-        // Get checkout suggestion for current player
-        const getCheckoutSuggestion = (score, dartsRemaining) => {
-            const isTripleOut = outMode.value === 'triple';
-            const maxCheckout = isTripleOut ? 180 : 170;
-            const minCheckout = isTripleOut ? 3 : 2;
-
-            if (score < minCheckout || score > maxCheckout) return null;
-
-            const table = isTripleOut ? tripleOutTable : doubleOutTable;
-            const checkout = table[score];
-            if (!checkout) return null;
-
-            // Check if we have enough darts for this checkout
-            if (checkout.length > dartsRemaining) return null;
-
-            return checkout;
-        };
-
+        // Checkout route for the current player, computed by the server
         const outSuggestion = computed(() => {
-            if (players.value.length === 0) return null;
-
             const player = players.value[currentPlayer.value];
-            if (!player) return null;
-
-            const dartsRemaining = 3 - dartsThrown.value;
-            if (dartsRemaining <= 0) return null;
-
-            const suggestion = getCheckoutSuggestion(player.score, dartsRemaining);
-            if (!suggestion) return null;
+            if (!player || checkout.value.length === 0) return null;
 
             return {
                 score: player.score,
-                darts: suggestion,
+                darts: checkout.value,
                 mode: outMode.value
             };
         });
@@ -784,12 +787,19 @@ const GameScreen = {
                 return;
             }
 
+            // A dart was rejected because another device scored first
+            if (gameState.message && gameState.message.startsWith('Conflict:')) {
+                currentTurnThrows.value = currentTurnThrows.value.slice(0, gameState.dartsThrown);
+            }
+
             const playerChanged = currentPlayer.value !== gameState.currentPlayerIndex;
             const dartsReset = gameState.dartsThrown < dartsThrown.value;
 
             currentPlayer.value = gameState.currentPlayerIndex;
             dartsThrown.value = gameState.dartsThrown;
             version.value = gameState.version;
+            checkout.value = gameState.checkout || [];
+            if (gameState.outMode) outMode.value = gameState.outMode;
 
             if (playerChanged || dartsReset) {
                 currentTurnThrows.value = [];
@@ -799,15 +809,31 @@ const GameScreen = {
                 players.value = gameState.players.map(p => ({
                     name: p.name,
                     score: p.score,
-                    currentThrow: p.currentThrow
+                    currentThrow: p.currentThrow,
+                    average: p.average ?? null,
+                    highestVisit: p.highestVisit,
+                    legsWon: p.legsWon ?? 0,
+                    setsWon: p.setsWon ?? 0
                 }));
             }
 
+            if (gameState.legsPerSet > 1 || gameState.setsToWin > 1) {
+                match.value = {
+                    legsPerSet: gameState.legsPerSet,
+                    setsToWin: gameState.setsToWin,
+                    setNumber: gameState.setNumber,
+                    legNumber: gameState.legNumber
+                };
+            } else {
+                match.value = null;
+            }
+
             if (gameState.status === 'FINISHED' && gameState.winnerName) {
                 winner.value = gameState.winnerName;
             } else {
                 winner.value = null;
             }
+            legWinner.value = gameState.status === 'LEG_FINISHED' ? gameState.winnerName : null;
         };
 
         const handleScore = (baseValue) => {
@@ -830,14 +856,17 @@ const GameScreen = {
             const notation = formatDartNotation(baseValue, actualModifier, points);
 
             currentTurnThrows.value.push({ baseValue, modifier: actualModifier, points, notation });
-            ws.sendThrow(sessionCode.value, points, version.value);
+            ws.sendThrow(sessionCode.value, baseValue, actualModifier, version.value);
+            // Expect our own throw to be applied next, so quick follow-up darts are not stale
+            version.value++;
             modifier.value = 1;
         };
 
         const handleMiss = () => {
             if (dartsThrown.value >= 3) return;
             currentTurnThrows.value.push({ baseValue: 0, modifier: 1, points: 0, notation: 'Miss' });
-            ws.sendThrow(sessionCode.value, 0, version.value);
+            ws.sendThrow(sessionCode.value, 0, 1, version.value);
+            version.value++;
         };
 
         const handleUndo = () => {
@@ -847,6 +876,10 @@ const GameScreen = {
             ws.sendUndo(sessionCode.value);
         };
 
+        const handleNextLeg = () => {
+            ws.sendNextLeg(sessionCode.value);
+        };
+
         const handleNewGame = () => {
             ws.disconnect();
             router.push('/');
@@ -857,16 +890,20 @@ const GameScreen = {
                 // Get current game state
                 const gameState = await api.getSession(sessionCode.value);
 
-                if (gameState.status !== 'ACTIVE') {
+                if (gameState.status !== 'ACTIVE' && gameState.status !== 'LEG_FINISHED') {
                     router.push('/');
                     return;
                 }
 
                 handleStateUpdate(gameState);
+                ws.setState(gameState);
 
                 // Connect to WebSocket for live updates
                 await ws.connect(sessionCode.value, handleStateUpdate);
 
+                // Catch up on anything that changed between the REST call and subscribing
+                ws.sync();
+
                 // Generate QR code
                 generateQRCode();
             } catch (error) {
@@ -887,6 +924,8 @@ const GameScreen = {
             modifiers,
             darts,
             winner,
+            legWinner,
+            match,
             qrCodeRef,
             outSuggestion,
             getButtonLabel,
@@ -894,6 +933,7 @@ const GameScreen = {
             handleScore,
             handleMiss,
             handleUndo,
+            handleNextLeg,
             handleNewGame
         };
     }
@@ -0,0 +1,196 @@
+package com.dartcounter.service;
+
+import com.dartcounter.DartCounterApplication;
+import com.dartcounter.dto.CreateSessionRequest;
+import com.dartcounter.entity.GameSession;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Runs two nodes against the embedded Artemis broker of the relay-local
+ * profile. Node a hosts the broker; node b is started next to it in the same
+ * JVM, on a database of their own. A start command sent to node a for a
+ * session owned by node b must be forwarded through b's command queue, applied
+ * there and broadcast to a subscriber connected to node b.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "dartcounter.session.sweep-interval-ms=3600000"
+})
+@ActiveProfiles({"local", "relay-local"})
+@DirtiesContext
+class RelayForwardingTest {
+
+    private static final String DATABASE = "jdbc:h2:mem:relay-forwarding";
+    private static final String NODES = "a,b";
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private static final int RELAY_PORT = freePort();
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @LocalServerPort
+    private int portA;
+
+    @Autowired
+    private GameSessionService sessions;
+
+    @Autowired
+    private SessionAffinity affinity;
+
+    @Autowired
+    private LiveSessionRegistry liveSessions;
+
+    @Autowired
+    private StompBrokerRelayMessageHandler relay;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @DynamicPropertySource
+    static void nodeA(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> DATABASE);
+        registry.add("dartcounter.broker.relay-port", () -> RELAY_PORT);
+        registry.add("dartcounter.cluster.node-id", () -> "a");
+        registry.add("dartcounter.cluster.nodes", () -> NODES);
+    }
+
+    @BeforeAll
+    static void startNodeB() {
+        // Started before any session exists, since it recreates the shared schema
+        nodeB = new SpringApplicationBuilder(DartCounterApplication.class)
+            .profiles("local", "relay-local")
+            .properties(
+                "server.port=0",
+                "spring.datasource.url=" + DATABASE,
+                "dartcounter.broker.embedded=false",
+                "dartcounter.broker.relay-port=" + RELAY_PORT,
+                "dartcounter.cluster.node-id=b",
+                "dartcounter.cluster.nodes=" + NODES,
+                "dartcounter.session.sweep-interval-ms=3600000")
+            .run();
+    }
+
+    @AfterAll
+    static void stopNodeB() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    @Test
+    @Timeout(value = 2, unit = TimeUnit.MINUTES)
+    void commandSentToOneNodeIsAppliedAndBroadcastByTheOwner() throws Exception {
+        StompBrokerRelayMessageHandler relayB = nodeB.getBean(StompBrokerRelayMessageHandler.class);
+        await(() -> relay.isBrokerAvailable() && relayB.isBrokerAvailable());
+
+        String code = sessionOwnedBy("b");
+        int portB = nodeB.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new ByteArrayMessageConverter());
+        StompSession subscriber = connect(client, portB);
+        StompSession sender = connect(client, portA);
+        try {
+            BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+            CountDownLatch subscribed = new CountDownLatch(1);
+            subscriber.setAutoReceipt(true);
+            subscriber.subscribe("/topic/session/" + code, new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return byte[].class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    received.add((byte[]) payload);
+                }
+            }).addReceiptTask(subscribed::countDown);
+            assertThat(subscribed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+
+            // Node b's command queue keeps the command until its listener is subscribed
+            sender.send("/app/session/" + code + "/start", new byte[0]);
+
+            byte[] broadcast = received.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertThat(broadcast).as("broadcast on node b").isNotNull();
+            JsonNode state = objectMapper.readTree(broadcast);
+            assertThat(state.path("sessionCode").asText()).isEqualTo(code);
+            assertThat(state.path("status").asText()).isEqualTo("ACTIVE");
+
+            assertThat(nodeB.getBean(LiveSessionRegistry.class).peek(code)).isNotNull();
+            assertThat(liveSessions.peek(code)).isNull();
+        } finally {
+            subscriber.disconnect();
+            sender.disconnect();
+            client.stop();
+        }
+    }
+
+    private String sessionOwnedBy(String node) {
+        CreateSessionRequest request = new CreateSessionRequest();
+        request.setPlayerNames(List.of("Player 1", "Player 2"));
+        request.setStartingScore(501);
+        for (int i = 0; i < 64; i++) {
+            GameSession session = sessions.createSession(request);
+            if (affinity.ownerOf(session.getSessionCode()).equals(node)) {
+                return session.getSessionCode();
+            }
+        }
+        return fail("No session owned by node " + node);
+    }
+
+    private static StompSession connect(WebSocketStompClient client, int port) throws Exception {
+        return client.connectAsync("ws://localhost:" + port + "/ws", new StompSessionHandlerAdapter() { })
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Relay not connected to the broker");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.dartcounter.service;
+
+import com.dartcounter.dto.CreateSessionRequest;
+import com.dartcounter.dto.ThrowRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the JDBC statements Hibernate prepares for creating a session and for
+ * flushing a visit, against H2. With batched inserts they must not grow with
+ * the number of players or darts.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    // Keep the scheduled flusher and sweeper out of the counts
+    "dartcounter.write-behind.flush-interval-ms=3600000",
+    "dartcounter.session.sweep-interval-ms=3600000"
+})
+@ActiveProfiles("local")
+class StatementCountTest {
+
+    // A pooled sequence may need one extra round-trip when a block runs out
+    private static final long SEQUENCE_FETCH_ALLOWANCE = 1;
+
+    @Autowired
+    private GameSessionService service;
+
+    @Autowired
+    private LiveSessionRegistry registry;
+
+    @Autowired
+    private WriteBehindFlusher flusher;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Warm up code allocation and the id pools
+        createActiveSession(2);
+    }
+
+    @Test
+    void createSessionStatementsDoNotGrowWithPlayers() {
+        long twoPlayers = count(() -> createActiveSession(2));
+        long eightPlayers = count(() -> createActiveSession(8));
+
+        assertThat(eightPlayers).isLessThanOrEqualTo(twoPlayers + SEQUENCE_FETCH_ALLOWANCE);
+    }
+
+    @Test
+    void visitFlushStatementsDoNotGrowWithDarts() {
+        String code = createActiveSession(2);
+        // Warm up the event id pool
+        service.processVisit(code, darts(3), null);
+        flush(code);
+
+        // Three darts first: they end the visit, so the single dart starts a fresh one
+        long threeDarts = count(() -> {
+            service.processVisit(code, darts(3), null);
+            flush(code);
+        });
+        long oneDart = count(() -> {
+            service.processVisit(code, darts(1), null);
+            flush(code);
+        });
+
+        assertThat(threeDarts).isGreaterThan(0);
+        assertThat(threeDarts).isLessThanOrEqualTo(oneDart + SEQUENCE_FETCH_ALLOWANCE);
+    }
+
+    private long count(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private String createActiveSession(int playerCount) {
+        List<String> names = new ArrayList<>();
+        for (int i = 1; i <= playerCount; i++) {
+            names.add("Player " + i);
+        }
+        CreateSessionRequest request = new CreateSessionRequest();
+        request.setPlayerNames(names);
+        request.setStartingScore(501);
+        String code = service.createSession(request).getSessionCode();
+        service.startGame(code);
+        return code;
+    }
+
+    // Writes pending changes now, as the scheduled flusher would
+    private void flush(String code) {
+        LiveSession live = registry.acquire(code);
+        live.getLock().lock();
+        try {
+            if (live.isDirty()) {
+                flusher.flush(live);
+            }
+        } finally {
+            live.getLock().unlock();
+        }
+    }
+
+    private static List<ThrowRequest> darts(int count) {
+        List<ThrowRequest> darts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ThrowRequest dart = new ThrowRequest();
+            dart.setSegment(20);
+            darts.add(dart);
+        }
+        return darts;
+    }
+}
@@ -0,0 +1,172 @@
+package com.dartcounter.service;
+
+import com.dartcounter.dto.CreateTournamentRequest;
+import com.dartcounter.dto.ThrowRequest;
+import com.dartcounter.dto.TournamentDTO;
+import com.dartcounter.dto.TournamentMatchDTO;
+import com.dartcounter.entity.GameStatus;
+import com.dartcounter.entity.TournamentMatchStatus;
+import com.dartcounter.entity.TournamentStatus;
+import com.dartcounter.repository.TournamentBoardRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Plays a whole tournament against H2 with every board in use at once. In each
+ * wave all matches in play throw up to their winning dart, then the winning
+ * darts land together, so the bracket gets a board's worth of results at the
+ * same moment. The tournament must complete with every match decided by its
+ * result event, the expected champion and every board free again.
+ */
+@SpringBootTest(properties = {
+    // Every result must arrive through its event
+    "dartcounter.tournament.reconcile-interval-ms=3600000",
+    "dartcounter.session.sweep-interval-ms=3600000"
+})
+@ActiveProfiles("local")
+class TournamentLoadTest {
+
+    private static final int PLAYERS = 256;
+    private static final int BOARDS = 128;
+    private static final long WAVE_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    // The first thrower checks out 501 in nine darts (two 180s, T20 T19 D12); the second scores 3 a visit
+    private static final int[][] MAXIMUM = {{20, 3}, {20, 3}, {20, 3}};
+    private static final int[][] LOW = {{1, 1}, {1, 1}, {1, 1}};
+    private static final int[][] SETUP = {{20, 3}, {19, 3}};
+    private static final int[][] CHECKOUT = {{12, 2}};
+
+    @Autowired
+    private TournamentService tournaments;
+
+    @Autowired
+    private GameSessionService sessions;
+
+    @Autowired
+    private TournamentBoardRepository boardRepository;
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.MINUTES)
+    void simultaneousResultsCompleteTheBracket() throws Exception {
+        CreateTournamentRequest request = new CreateTournamentRequest();
+        request.setName("Load test");
+        request.setBoards(BOARDS);
+        request.setStartingScore(501);
+        List<String> names = new ArrayList<>();
+        for (int i = 1; i <= PLAYERS; i++) {
+            names.add("Player " + i);
+        }
+        request.setPlayerNames(names);
+        String code = tournaments.createTournament(request).getCode();
+
+        Set<String> played = new HashSet<>();
+        try (ExecutorService boardThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            TournamentDTO tournament = tournaments.getTournament(code);
+            while (!TournamentStatus.FINISHED.name().equals(tournament.getStatus())) {
+                List<String> wave = tournament.getMatches().stream()
+                    .filter(match -> TournamentMatchStatus.PLAYING.name().equals(match.getStatus()))
+                    .map(TournamentMatchDTO::getSessionCode)
+                    .filter(session -> session != null && !played.contains(session))
+                    .toList();
+                if (wave.isEmpty()) {
+                    Thread.sleep(5);
+                } else {
+                    played.addAll(wave);
+                    playWave(code, wave, boardThreads);
+                }
+                tournament = tournaments.getTournament(code);
+            }
+
+            // The first player of each match always wins, and the first player overall is player 1 throughout
+            assertThat(tournament.getWinnerName()).isEqualTo("Player 1");
+            assertThat(tournament.getMatches())
+                .allMatch(match -> TournamentMatchStatus.FINISHED.name().equals(match.getStatus()));
+            assertThat(tournament.getMatches().stream()
+                .filter(match -> match.getPlayer2() != null && match.getWinner() != null))
+                .hasSize(PLAYERS - 1);
+            assertThat(played).hasSize(PLAYERS - 1);
+            assertThat(boardRepository.findFreeBoards(code, PageRequest.of(0, BOARDS))).hasSize(BOARDS);
+        }
+    }
+
+    /**
+     * Plays the given match sessions to their last dart, lands all winning darts
+     * together and waits until the bracket shows every result.
+     */
+    private void playWave(String code, List<String> wave, ExecutorService boardThreads) throws Exception {
+        CountDownLatch set = new CountDownLatch(wave.size());
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> boards = new ArrayList<>();
+        for (String session : wave) {
+            boards.add(boardThreads.submit(() -> {
+                awaitStarted(session);
+                for (int visit = 0; visit < 2; visit++) {
+                    sessions.processVisit(session, darts(MAXIMUM), null);
+                    sessions.processVisit(session, darts(LOW), null);
+                }
+                sessions.processVisit(session, darts(SETUP), null);
+                set.countDown();
+                go.await();
+                sessions.processVisit(session, darts(CHECKOUT), null);
+                return null;
+            }));
+        }
+
+        set.await();
+        long landed = System.nanoTime();
+        go.countDown();
+        for (Future<?> board : boards) {
+            board.get();
+        }
+
+        Set<String> waiting = new HashSet<>(wave);
+        while (!waiting.isEmpty()) {
+            if (System.nanoTime() - landed > WAVE_TIMEOUT_NANOS) {
+                fail(waiting.size() + " results never reached the bracket");
+            }
+            for (TournamentMatchDTO match : tournaments.getTournament(code).getMatches()) {
+                if (match.getWinner() != null) {
+                    waiting.remove(match.getSessionCode());
+                }
+            }
+            if (!waiting.isEmpty()) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    // Sessions are started on their mailbox, after the tournament hands them out
+    private void awaitStarted(String session) throws InterruptedException {
+        while (GameStatus.WAITING.name().equals(sessions.getState(session).getStatus())) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static List<ThrowRequest> darts(int[][] visit) {
+        List<ThrowRequest> darts = new ArrayList<>();
+        for (int[] dart : visit) {
+            ThrowRequest request = new ThrowRequest();
+            request.setSegment(dart[0]);
+            request.setMultiplier(dart[1]);
+            darts.add(request);
+        }
+        return darts;
+    }
+}
@@ -0,0 +1,172 @@
+package com.dartcounter.service;
+
+import com.dartcounter.dto.CreateTournamentRequest;
+import com.dartcounter.dto.ThrowRequest;
+import com.dartcounter.dto.TournamentDTO;
+import com.dartcounter.dto.TournamentMatchDTO;
+import com.dartcounter.entity.GameStatus;
+import com.dartcounter.entity.TournamentMatch;
+import com.dartcounter.entity.TournamentMatchStatus;
+import com.dartcounter.entity.TournamentStatus;
+import com.dartcounter.repository.TournamentBoardRepository;
+import com.dartcounter.repository.TournamentMatchRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A result that was only partly applied, as when a node died right after
+ * marking the match finished, must be completed by the reconciliation: the
+ * winner moves on, the board is freed and the bracket plays on to the end.
+ */
+@SpringBootTest(properties = {
+    // Reconciliation only runs when the test calls it
+    "dartcounter.tournament.reconcile-interval-ms=3600000",
+    "dartcounter.session.sweep-interval-ms=3600000"
+})
+@ActiveProfiles("local")
+class TournamentRecoveryTest {
+
+    // The first thrower checks out 501 in nine darts (two 180s, T20 T19 D12); the second scores 3 a visit
+    private static final int[][][] FIRST_PLAYER_WINS = {
+        {{20, 3}, {20, 3}, {20, 3}}, {{1, 1}, {1, 1}, {1, 1}},
+        {{20, 3}, {20, 3}, {20, 3}}, {{1, 1}, {1, 1}, {1, 1}},
+        {{20, 3}, {19, 3}, {12, 2}}
+    };
+
+    @Autowired
+    private TournamentService tournaments;
+
+    @Autowired
+    private GameSessionService sessions;
+
+    @Autowired
+    private TournamentMatchRepository matchRepository;
+
+    @Autowired
+    private TournamentBoardRepository boardRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void reconcileCompletesAResultCutOffAfterRecordingTheWinner() throws Exception {
+        String code = createTournament(4, 2);
+        TournamentDTO tournament = tournaments.getTournament(code);
+        TournamentMatchDTO first = match(tournament, 0, 0);
+        TournamentMatchDTO second = match(tournament, 0, 1);
+
+        // The node dies right after the winner of the first match is recorded
+        TournamentMatch cutOff = matchRepository.findByTournamentCodeAndSessionCode(code, first.getSessionCode())
+            .orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> matchRepository.recordWinner(cutOff.getId(), "Player 1"));
+
+        // The other result goes through normally
+        play(second.getSessionCode());
+        tournament = await(code, t -> "Player 3".equals(match(t, 1, 0).getPlayer2()));
+        assertThat(match(tournament, 1, 0).getPlayer1()).isNull();
+        assertThat(match(tournament, 1, 0).getStatus()).isEqualTo(TournamentMatchStatus.PENDING.name());
+        assertThat(freeBoards(code)).isEqualTo(1);
+
+        tournaments.reconcile();
+
+        tournament = tournaments.getTournament(code);
+        TournamentMatchDTO fin = match(tournament, 1, 0);
+        assertThat(fin.getPlayer1()).isEqualTo("Player 1");
+        assertThat(fin.getStatus()).isEqualTo(TournamentMatchStatus.PLAYING.name());
+        assertThat(fin.getSessionCode()).isNotNull();
+        assertThat(freeBoards(code)).isEqualTo(1);
+
+        play(fin.getSessionCode());
+        tournament = await(code, t -> TournamentStatus.FINISHED.name().equals(t.getStatus()));
+        assertThat(tournament.getWinnerName()).isEqualTo("Player 1");
+        assertThat(freeBoards(code)).isEqualTo(2);
+    }
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void reconcileFinishesATournamentCutOffAfterRecordingTheFinal() throws Exception {
+        String code = createTournament(2, 1);
+        TournamentMatchDTO fin = match(tournaments.getTournament(code), 0, 0);
+
+        TournamentMatch cutOff = matchRepository.findByTournamentCodeAndSessionCode(code, fin.getSessionCode())
+            .orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> matchRepository.recordWinner(cutOff.getId(), "Player 1"));
+        assertThat(tournaments.getTournament(code).getStatus()).isEqualTo(TournamentStatus.ACTIVE.name());
+        assertThat(freeBoards(code)).isZero();
+
+        tournaments.reconcile();
+
+        TournamentDTO tournament = tournaments.getTournament(code);
+        assertThat(tournament.getStatus()).isEqualTo(TournamentStatus.FINISHED.name());
+        assertThat(tournament.getWinnerName()).isEqualTo("Player 1");
+        assertThat(freeBoards(code)).isEqualTo(1);
+    }
+
+    private String createTournament(int players, int boards) {
+        CreateTournamentRequest request = new CreateTournamentRequest();
+        request.setName("Recovery test");
+        request.setBoards(boards);
+        request.setStartingScore(501);
+        List<String> names = new ArrayList<>();
+        for (int i = 1; i <= players; i++) {
+            names.add("Player " + i);
+        }
+        request.setPlayerNames(names);
+        return tournaments.createTournament(request).getCode();
+    }
+
+    private void play(String session) throws InterruptedException {
+        // Started on its mailbox, after the tournament hands it out
+        while (GameStatus.WAITING.name().equals(sessions.getState(session).getStatus())) {
+            Thread.sleep(1);
+        }
+        for (int[][] visit : FIRST_PLAYER_WINS) {
+            sessions.processVisit(session, darts(visit), null);
+        }
+    }
+
+    // Results move the bracket on from a virtual thread of their own
+    private TournamentDTO await(String code, Predicate<TournamentDTO> condition) throws InterruptedException {
+        TournamentDTO tournament = tournaments.getTournament(code);
+        while (!condition.test(tournament)) {
+            Thread.sleep(5);
+            tournament = tournaments.getTournament(code);
+        }
+        return tournament;
+    }
+
+    private int freeBoards(String code) {
+        return boardRepository.findFreeBoards(code, PageRequest.of(0, 16)).size();
+    }
+
+    private static TournamentMatchDTO match(TournamentDTO tournament, int round, int position) {
+        return tournament.getMatches().stream()
+            .filter(match -> match.getRound() == round && match.getPosition() == position)
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static List<ThrowRequest> darts(int[][] visit) {
+        List<ThrowRequest> darts = new ArrayList<>();
+        for (int[] dart : visit) {
+            ThrowRequest request = new ThrowRequest();
+            request.setSegment(dart[0]);
+            request.setMultiplier(dart[1]);
+            darts.add(request);
+        }
+        return darts;
+    }
+}